@@ -0,0 +1,50 @@
+package study.querydsl.bench;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import study.querydsl.QuerydslApplication;
+import study.querydsl.service.MemberSeedService;
+
+/**
+ * 벤치마크용 스프링 컨텍스트
+ * - 인메모리 H2 (웹, local 프로파일 InitMember, SQL 로그 제외)
+ * - bench.members, bench.teams, bench.skew 로 MemberSeedService 를 통해 데이터 적재
+ */
+public class BenchmarkContext {
+
+	public static final int MEMBERS = Integer.getInteger("bench.members", 10000);
+	public static final int TEAMS = Integer.getInteger("bench.teams", 10);
+	public static final double SKEW = Double.parseDouble(System.getProperty("bench.skew", "0"));
+
+	public static ConfigurableApplicationContext start(boolean countCache) {
+		SpringApplication application = new SpringApplication(QuerydslApplication.class);
+		application.setWebApplicationType(WebApplicationType.NONE);
+		ConfigurableApplicationContext context = application.run(
+			"--spring.profiles.active=bench",
+			"--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+			"--spring.jpa.hibernate.ddl-auto=create",
+			"--spring.jpa.properties.hibernate.format_sql=false",
+			"--spring.jpa.properties.hibernate.use_sql_comments=false",
+			"--decorator.datasource.p6spy.enable-logging=false",
+			"--logging.level.root=warn",
+			"--logging.level.org.hibernate.SQL=off",
+			"--logging.level.org.hibernate.type=off",
+			"--querydsl.pagination.count-cache.enabled=" + countCache);
+		context.getBean(MemberSeedService.class).seed(TEAMS, MEMBERS, SKEW);
+		return context;
+	}
+
+	public static String username(int i) {
+		return "member" + i;
+	}
+
+	public static String teamName(int i) {
+		return MemberSeedService.teamName(i);
+	}
+
+	public static int age(int i) {
+		return i % 100;
+	}
+}
@@ -0,0 +1,214 @@
+package study.querydsl.bench;
+
+import static org.springframework.util.StringUtils.*;
+import static study.querydsl.entity.QMember.*;
+import static study.querydsl.entity.QTeam.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSearchTemplate;
+import study.querydsl.repository.MemberTestRepository;
+
+/**
+ * 리포지토리 검색 경로 벤치마크
+ * - ./gradlew jmh -Pbench.members=100000 -Pbench.teams=100
+ * - gc 프로파일러의 gc.alloc.rate.norm 으로 BooleanBuilder / where 다중 파라미터 / 템플릿 방식의 호출당 할당량 비교
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MemberSearchBenchmark {
+
+	// 검색 조건 조합
+	@Param({"none", "username", "teamName", "ageRange", "teamNameAgeRange"})
+	public String shape;
+
+	// true 면 두번째 호출부터 total count 를 캐시에서 가져옴
+	@Param({"false"})
+	public boolean countCache;
+
+	private ConfigurableApplicationContext context;
+	private MemberJpaRepository memberJpaRepository;
+	private MemberRepository memberRepository;
+	private MemberTestRepository memberTestRepository;
+	private JPAQueryFactory queryFactory;
+	private EntityManager em;
+
+	private MemberSearchCondition condition;
+	private Predicate predicate;
+	private Pageable pageable;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkContext.start(countCache);
+		memberJpaRepository = context.getBean(MemberJpaRepository.class);
+		memberRepository = context.getBean(MemberRepository.class);
+		memberTestRepository = context.getBean(MemberTestRepository.class);
+		queryFactory = context.getBean(JPAQueryFactory.class);
+		em = context.getBean(EntityManager.class);
+
+		condition = condition(shape);
+		predicate = predicate(condition);
+		pageable = PageRequest.of(1, 20);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<MemberTeamDto> search() {
+		return memberJpaRepository.search(condition);
+	}
+
+	@Benchmark
+	public List<MemberTeamDto> searchByBuilder() {
+		return memberJpaRepository.searchByBuilder(condition);
+	}
+
+	// searchByBuilder 와 같은 쿼리를 where 다중 파라미터로 작성
+	@Benchmark
+	public List<MemberTeamDto> searchByWhereParam() {
+		return queryFactory
+			.select(new QMemberTeamDto(
+				member.id.as("memberId"), member.username
+				, member.age, team.id.as("teamId"),
+				team.name.as("teamName")
+			))
+			.from(member)
+			.leftJoin(member.team, team)
+			.where(
+				usernameEq(condition.getUsername()),
+				teamNameEq(condition.getTeamName()),
+				ageGoe(condition.getAgeGoe()),
+				ageLoe(condition.getAgeLoe())
+			)
+			.fetch();
+	}
+
+	// searchByWhereParam 과 같은 쿼리를 shape 별로 미리 직렬화한 JPQL 로 조회 (search() 의 템플릿 경로)
+	@Benchmark
+	public List<MemberTeamDto> searchByTemplate() {
+		return MemberSearchTemplate.search(em, condition);
+	}
+
+	@Benchmark
+	public Page<MemberTeamDto> searchPageSimple() {
+		return memberRepository.searchPageSimple(condition, pageable);
+	}
+
+	@Benchmark
+	public Page<MemberTeamDto> searchPageComplex() {
+		return memberRepository.searchPageComplex(condition, pageable);
+	}
+
+	@Benchmark
+	public Page<Member> applyPagination2() {
+		return memberTestRepository.applyPagination2(condition, pageable);
+	}
+
+	@Benchmark
+	public Iterable<Member> predicateFindAll() {
+		return memberRepository.findAll(predicate);
+	}
+
+	@Benchmark
+	public Page<Member> predicateFindAllPage() {
+		return memberRepository.findAll(predicate, pageable);
+	}
+
+	@Benchmark
+	public long predicateCount() {
+		return memberRepository.count(predicate);
+	}
+
+	private static MemberSearchCondition condition(String shape) {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		switch (shape) {
+			case "none":
+				break;
+			case "username":
+				condition.setUsername(BenchmarkContext.username(BenchmarkContext.MEMBERS / 2));
+				break;
+			case "teamName":
+				condition.setTeamName(BenchmarkContext.teamName(0));
+				break;
+			case "ageRange":
+				condition.setAgeGoe(35);
+				condition.setAgeLoe(40);
+				break;
+			case "teamNameAgeRange":
+				condition.setTeamName(BenchmarkContext.teamName(0));
+				condition.setAgeGoe(35);
+				condition.setAgeLoe(40);
+				break;
+			default:
+				throw new IllegalArgumentException("unknown shape: " + shape);
+		}
+		return condition;
+	}
+
+	// QuerydslPredicateExecutor 는 join 을 지정할 수 없어 team.name 은 묵시적 join 으로 조회
+	private static Predicate predicate(MemberSearchCondition condition) {
+		BooleanBuilder builder = new BooleanBuilder();
+		if (hasText(condition.getUsername())) {
+			builder.and(member.username.eq(condition.getUsername()));
+		}
+		if (hasText(condition.getTeamName())) {
+			builder.and(member.team.name.eq(condition.getTeamName()));
+		}
+		if (condition.getAgeGoe() != null) {
+			builder.and(member.age.goe(condition.getAgeGoe()));
+		}
+		if (condition.getAgeLoe() != null) {
+			builder.and(member.age.loe(condition.getAgeLoe()));
+		}
+		return builder;
+	}
+
+	private BooleanExpression usernameEq(String username) {
+		return hasText(username) ? member.username.eq(username) : null;
+	}
+
+	private BooleanExpression teamNameEq(String teamName) {
+		return hasText(teamName) ? team.name.eq(teamName) : null;
+	}
+
+	private BooleanExpression ageGoe(Integer ageGoe) {
+		return ageGoe != null ? member.age.goe(ageGoe) : null;
+	}
+
+	private BooleanExpression ageLoe(Integer ageLoe) {
+		return ageLoe != null ? member.age.loe(ageLoe) : null;
+	}
+}
@@ -0,0 +1,64 @@
+package study.querydsl.config;
+
+import java.time.Duration;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * spring.datasource.replica.url 이 있으면 primary / replica 두 풀을 만들고 readOnly 트랜잭션을 replica 로 라우팅
+ * (풀은 빈으로 등록하지 않음 -> p6spy 는 라우팅 DataSource 한번만 감쌈)
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "spring.datasource.replica", name = "url")
+public class DataSourceRoutingConfig {
+
+	private final HikariDataSource primary;
+	private final HikariDataSource replica;
+
+	public DataSourceRoutingConfig(DataSourceProperties properties,
+		@Value("${spring.datasource.replica.url}") String replicaUrl,
+		@Value("${spring.datasource.replica.username:${spring.datasource.username:}}") String replicaUsername,
+		@Value("${spring.datasource.replica.password:${spring.datasource.password:}}") String replicaPassword,
+		@Value("${spring.datasource.replica.maximum-pool-size:10}") int replicaPoolSize,
+		@Value("${spring.datasource.replica.connection-timeout:250ms}") Duration replicaTimeout) {
+		this.primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		this.primary.setPoolName("primary");
+
+		this.replica = new HikariDataSource();
+		this.replica.setPoolName("replica");
+		this.replica.setDriverClassName(properties.determineDriverClassName());
+		this.replica.setJdbcUrl(replicaUrl);
+		this.replica.setUsername(replicaUsername);
+		this.replica.setPassword(replicaPassword);
+		this.replica.setMaximumPoolSize(replicaPoolSize);
+		this.replica.setConnectionTimeout(replicaTimeout.toMillis());
+		this.replica.setReadOnly(true);
+	}
+
+	@Bean(destroyMethod = "")
+	public DataSource dataSource(MeterRegistry meterRegistry) {
+		Counter fallback = Counter.builder("querydsl.datasource.replica.fallback")
+			.description("replica 풀 고갈로 primary 를 사용한 횟수")
+			.register(meterRegistry);
+		return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, fallback));
+	}
+
+	@PreDestroy
+	public void close() {
+		replica.close();
+		primary.close();
+	}
+}
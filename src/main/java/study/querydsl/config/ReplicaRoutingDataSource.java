@@ -0,0 +1,62 @@
+package study.querydsl.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * readOnly 트랜잭션은 replica, 나머지는 primary 로 보냄
+ * - LazyConnectionDataSourceProxy 로 감싸서 트랜잭션 시작 후 첫 SQL 시점에 커넥션을 얻어야 readOnly 여부를 알 수 있음
+ * - replica 풀에서 connection-timeout 안에 커넥션을 얻지 못하면 primary 로 대체 (primary 는 항상 최신이므로 안전)
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+	public static final String PRIMARY = "primary";
+	public static final String REPLICA = "replica";
+
+	private final DataSource primary;
+	private final DataSource replica;
+	private final Counter fallbackCounter;
+
+	public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Counter fallbackCounter) {
+		this.primary = primary;
+		this.replica = replica;
+		this.fallbackCounter = fallbackCounter;
+		Map<Object, Object> targets = new HashMap<>();
+		targets.put(PRIMARY, primary);
+		targets.put(REPLICA, replica);
+		setTargetDataSources(targets);
+		setDefaultTargetDataSource(primary);
+		afterPropertiesSet();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? REPLICA : PRIMARY;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		if (!REPLICA.equals(determineCurrentLookupKey())) {
+			return primary.getConnection();
+		}
+		try {
+			return replica.getConnection();
+		} catch (SQLTransientConnectionException e) {
+			fallbackCounter.increment();
+			log.warn("Replica pool exhausted, falling back to primary: {}", e.getMessage());
+			return primary.getConnection();
+		}
+	}
+}
@@ -1,45 +1,34 @@
 package study.querydsl.controller;
 
 import javax.annotation.PostConstruct;
-import javax.persistence.EntityManager;
-import javax.persistence.PersistenceContext;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
-import lombok.RequiredArgsConstructor;
-import study.querydsl.entity.Member;
-import study.querydsl.entity.Team;
+import study.querydsl.service.MemberSeedService;
 
 @Profile("local")
 @Component
-@RequiredArgsConstructor
 public class InitMember {
 
-	private final InitMemberService initMemberService;
+	private final MemberSeedService memberSeedService;
+	private final int teams;
+	private final int members;
+	private final double skew;
+
+	public InitMember(MemberSeedService memberSeedService,
+		@Value("${member.seed.teams:2}") int teams,
+		@Value("${member.seed.members:100}") int members,
+		@Value("${member.seed.skew:0}") double skew) {
+		this.memberSeedService = memberSeedService;
+		this.teams = teams;
+		this.members = members;
+		this.skew = skew;
+	}
 
 	@PostConstruct
 	public void init() {
-		initMemberService.init();
-	}
-
-	@Component
-	static class InitMemberService {
-		@PersistenceContext
-		private EntityManager em;
-
-		@Transactional
-		public void init() {
-			Team teamA = new Team("teamA");
-			Team teamB = new Team("teamB");
-			em.persist(teamA);
-			em.persist(teamB);
-
-			for (int i = 0 ; i < 100; i++) {
-				Team selectedTeam = i % 2 == 0 ? teamA : teamB;
-				em.persist(new Member("member" + i, i , selectedTeam));
-			}
-		}
+		memberSeedService.seed(teams, members, skew);
 	}
 }
@@ -1,17 +1,31 @@
 package study.querydsl.controller;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 import lombok.RequiredArgsConstructor;
+import study.querydsl.dto.MemberCursor;
+import study.querydsl.dto.MemberCursorPage;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.event.DataVersions;
+import study.querydsl.repository.MemberHybridExecutor;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
+import study.querydsl.service.MemberExportService;
 
 @RestController
 @RequiredArgsConstructor
@@ -19,19 +33,92 @@ public class MemberController {
 
 	private final MemberJpaRepository memberJpaRepository;
 	private final MemberRepository memberRepository;
+	private final MemberHybridExecutor memberHybridExecutor;
+	private final MemberExportService memberExportService;
+	private final SearchBulkheads searchBulkheads;
+	private final DataVersions dataVersions;
+
+	@Value("${member.cursor.max-size:100}")
+	private int maxCursorSize;
 
+	// v1 ~ v3: Member, Team 이 바뀌지 않았으면 If-None-Match 에 DB 조회 없이 304 (null 반환)
 	@GetMapping("/v1/members")
-	public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
+	public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition, WebRequest request) {
+		if (request.checkNotModified(dataVersions.etag("v1", condition.normalize()))) {
+			return null;
+		}
 		return memberJpaRepository.search(condition);
 	}
 
 	@GetMapping("/v2/members")
-	public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
+	public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable,
+		WebRequest request) {
+		if (request.checkNotModified(dataVersions.etag("v2", condition.normalize(), pageable))) {
+			return null;
+		}
 		return memberRepository.searchPageSimple(condition, pageable);
 	}
 
 	@GetMapping("/v3/members")
-	public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
+	public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable,
+		WebRequest request) {
+		if (request.checkNotModified(dataVersions.etag("v3", condition.normalize(), pageable))) {
+			return null;
+		}
 		return memberRepository.searchPageComplex(condition, pageable);
 	}
+
+	/**
+	 * v1 ~ v3 의 비동기 버전, 서블릿 스레드는 바로 반환하고 그룹별 전용 풀에서 조회
+	 * 풀과 대기열이 가득 차거나 제한 시간을 넘기면 503
+	 */
+	@GetMapping("/v1/members/async")
+	public CompletableFuture<List<MemberTeamDto>> searchMemberV1Async(MemberSearchCondition condition) {
+		return searchBulkheads.submit("v1", () -> memberJpaRepository.search(condition));
+	}
+
+	@GetMapping("/v2/members/async")
+	public CompletableFuture<Page<MemberTeamDto>> searchMemberV2Async(MemberSearchCondition condition,
+		Pageable pageable) {
+		return searchBulkheads.submit("v2", () -> memberRepository.searchPageSimple(condition, pageable));
+	}
+
+	@GetMapping("/v3/members/async")
+	public CompletableFuture<Page<MemberTeamDto>> searchMemberV3Async(MemberSearchCondition condition,
+		Pageable pageable) {
+		return searchBulkheads.submit("v3", () -> memberRepository.searchPageComplex(condition, pageable));
+	}
+
+	// size 는 1 ~ member.cursor.max-size, 잘못된 size 나 커서는 400
+	@GetMapping("/v4/members")
+	public MemberCursorPage searchMemberV4(MemberSearchCondition condition,
+		@RequestParam(required = false) String cursor,
+		@RequestParam(defaultValue = "20") int size) {
+		if (size < 1 || size > maxCursorSize) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + maxCursorSize);
+		}
+		MemberCursor after;
+		try {
+			after = MemberCursor.decode(cursor);
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+		}
+		return MemberCursorPage.of(memberRepository.searchByCursor(condition, after, size));
+	}
+
+	// v1 과 같은 검색, 팀 조건이 있으면 캐시된 팀 회원에서 메모리로 실행 (MemberHybridExecutor), 회원 id 순
+	@GetMapping("/v5/members")
+	public List<MemberTeamDto> searchMemberV5(MemberSearchCondition condition, WebRequest request) {
+		if (request.checkNotModified(dataVersions.etag("v5", condition.normalize()))) {
+			return null;
+		}
+		return memberHybridExecutor.search(condition);
+	}
+
+	@GetMapping("/members/export")
+	public void exportMembers(MemberSearchCondition condition, HttpServletResponse response) throws IOException {
+		response.setContentType("application/x-ndjson");
+		response.setCharacterEncoding("UTF-8");
+		memberExportService.exportNdjson(condition, response.getOutputStream());
+	}
 }
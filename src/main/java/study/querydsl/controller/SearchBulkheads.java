@@ -0,0 +1,119 @@
+package study.querydsl.controller;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * 엔드포인트 그룹(v1, v2, v3 ...)별 전용 스레드 풀 (bulkhead)
+ * - 한 그룹의 느린 쿼리가 다른 그룹이나 톰캣 스레드를 잡아먹지 않음
+ * - 큐가 가득 차면 바로 503, 제한 시간을 넘겨도 503
+ * - 제한 시간을 넘긴 작업은 취소 (대기 중이면 큐에서 빼고, 실행 중이면 인터럽트)
+ * - 작업은 제한 시간을 timeout 으로 준 readOnly 트랜잭션에서 실행
+ *   -> 그 안의 JPA 쿼리에 남은 시간이 javax.persistence.query.timeout 으로 적용되어 인터럽트로 멈추지 않는 JDBC 호출도 끊김
+ * - member.async.{그룹}.pool-size / queue-capacity / timeout 으로 설정 (없으면 member.async.default.*)
+ */
+@Component
+public class SearchBulkheads implements DisposableBean {
+
+	private final Environment environment;
+	private final MeterRegistry meterRegistry;
+	private final PlatformTransactionManager transactionManager;
+	private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+	public SearchBulkheads(Environment environment, MeterRegistry meterRegistry,
+		PlatformTransactionManager transactionManager) {
+		this.environment = environment;
+		this.meterRegistry = meterRegistry;
+		this.transactionManager = transactionManager;
+	}
+
+	public <T> CompletableFuture<T> submit(String family, Supplier<T> task) {
+		Bulkhead bulkhead = bulkheads.computeIfAbsent(family, this::create);
+		CompletableFuture<T> future = new CompletableFuture<>();
+		Future<?> running;
+		try {
+			running = bulkhead.executor.submit(() -> {
+				try {
+					future.complete(bulkhead.transaction.execute(status -> task.get()));
+				} catch (Throwable e) {
+					future.completeExceptionally(e);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			meterRegistry.counter("querydsl.bulkhead.rejected", "family", family).increment();
+			throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, family + " bulkhead is full");
+		}
+		return future
+			.orTimeout(bulkhead.timeout.toMillis(), TimeUnit.MILLISECONDS)
+			.exceptionally(e -> {
+				Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+				if (cause instanceof TimeoutException) {
+					running.cancel(true);
+					bulkhead.executor.purge();
+					meterRegistry.counter("querydsl.bulkhead.timeout", "family", family).increment();
+					throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, family + " timed out", cause);
+				}
+				throw e instanceof CompletionException ? (CompletionException)e : new CompletionException(cause);
+			});
+	}
+
+	private Bulkhead create(String family) {
+		int poolSize = property(family, "pool-size", Integer.class, 4);
+		int queueCapacity = property(family, "queue-capacity", Integer.class, 16);
+		Duration timeout = property(family, "timeout", Duration.class, Duration.ofSeconds(5));
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+			new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("search-" + family + "-"));
+		executor.allowCoreThreadTimeOut(true);
+		meterRegistry.gauge("querydsl.bulkhead.queue", Tags.of("family", family),
+			executor, e -> e.getQueue().size());
+		// 트랜잭션 timeout 은 초 단위이므로 올림
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.setReadOnly(true);
+		transaction.setTimeout((int)Math.max(1, (timeout.toMillis() + 999) / 1000));
+		return new Bulkhead(executor, transaction, timeout);
+	}
+
+	private <T> T property(String family, String name, Class<T> type, T defaultValue) {
+		T value = environment.getProperty("member.async." + family + "." + name, type);
+		return value != null ? value : environment.getProperty("member.async.default." + name, type, defaultValue);
+	}
+
+	@Override
+	public void destroy() {
+		bulkheads.values().forEach(bulkhead -> bulkhead.executor.shutdownNow());
+	}
+
+	private static class Bulkhead {
+		private final ThreadPoolExecutor executor;
+		private final TransactionTemplate transaction;
+		private final Duration timeout;
+
+		Bulkhead(ThreadPoolExecutor executor, TransactionTemplate transaction, Duration timeout) {
+			this.executor = executor;
+			this.transaction = transaction;
+			this.timeout = timeout;
+		}
+	}
+}
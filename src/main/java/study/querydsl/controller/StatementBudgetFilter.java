@@ -0,0 +1,48 @@
+package study.querydsl.controller;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import study.querydsl.repository.support.StatementBudget;
+
+/**
+ * HTTP 요청 한 건에서 실행되는 SQL 수 제한 (N+1 감지)
+ * mode=log 면 경고 로그, mode=fail 이면 예산을 넘는 SQL 에서 예외
+ */
+@Component
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+	private final boolean enabled;
+	private final int perRequest;
+	private final boolean fail;
+
+	public StatementBudgetFilter(@Value("${querydsl.statement-budget.enabled:true}") boolean enabled,
+		@Value("${querydsl.statement-budget.per-request:20}") int perRequest,
+		@Value("${querydsl.statement-budget.mode:log}") String mode) {
+		this.enabled = enabled;
+		this.perRequest = perRequest;
+		this.fail = "fail".equalsIgnoreCase(mode);
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !enabled;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+		FilterChain filterChain) throws ServletException, IOException {
+		try (StatementBudget budget = StatementBudget.open(request.getMethod() + " " + request.getRequestURI(),
+			perRequest, fail)) {
+			filterChain.doFilter(request, response);
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package study.querydsl.controller;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import lombok.RequiredArgsConstructor;
+import study.querydsl.dto.TeamStats;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.CountCache;
+import study.querydsl.repository.support.InListChunker;
+import study.querydsl.repository.support.MemberSnapshot;
+import study.querydsl.repository.support.QueryPlanInspector;
+import study.querydsl.repository.support.SingleFlight;
+import study.querydsl.repository.support.QueryPlanInspector.QueryPlan;
+import study.querydsl.service.TeamStatisticsService;
+
+@RestController
+@RequiredArgsConstructor
+public class StatsController {
+
+	private final CountCache countCache;
+	private final QueryPlanInspector queryPlanInspector;
+	private final EntityManagerFactory emf;
+	private final TeamStatisticsService teamStatisticsService;
+	private final SingleFlight singleFlight;
+	private final MemberSnapshot memberSnapshot;
+	private final InListChunker inListChunker;
+
+	@GetMapping("/stats/count-cache")
+	public Map<String, Object> countCacheStats() {
+		CacheStats stats = countCache.stats();
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("size", countCache.size());
+		result.put("hitCount", stats.hitCount());
+		result.put("missCount", stats.missCount());
+		result.put("hitRate", stats.hitRate());
+		result.put("evictionCount", stats.evictionCount());
+		return result;
+	}
+
+	// 동시에 들어온 같은 검색을 합친 횟수 (executed: 실제 DB 조회, coalesced: 결과만 공유)
+	@GetMapping("/stats/single-flight")
+	public Map<String, Object> singleFlightStats() {
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("executed", singleFlight.getExecuted());
+		result.put("coalesced", singleFlight.getCoalesced());
+		result.put("inFlight", singleFlight.getInFlight());
+		return result;
+	}
+
+	// 나이, 팀 조건 스냅샷 (member.snapshot.enabled)
+	@GetMapping("/stats/member-snapshot")
+	public Map<String, Object> memberSnapshotStats() {
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("ready", memberSnapshot.isReady());
+		result.put("size", memberSnapshot.size());
+		result.put("deltaSize", memberSnapshot.deltaSize());
+		return result;
+	}
+
+	// 검색 조건 조합별 EXPLAIN 결과 (fullScan=true 면 인덱스 미사용)
+	@GetMapping("/stats/query-plans")
+	public List<QueryPlan> queryPlans() {
+		return queryPlanInspector.explainAll();
+	}
+
+	// 팀별 회원 수, 나이 통계 (메모리 집계)
+	@GetMapping("/stats/teams")
+	public Map<Long, TeamStats> teamStats() {
+		return teamStatisticsService.getAll();
+	}
+
+	@GetMapping("/stats/teams/{teamName}")
+	public TeamStats teamStats(@PathVariable String teamName) {
+		return teamStatisticsService.getByTeamName(teamName);
+	}
+
+	// 2차 캐시 리전별 적중률 (hibernate.generate_statistics 필요)
+	@GetMapping("/stats/second-level-cache")
+	public Map<String, Object> secondLevelCacheStats() {
+		Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put(Team.CACHE_REGION, regionStats(statistics.getDomainDataRegionStatistics(Team.CACHE_REGION)));
+		result.put(Team.NAME_QUERY_REGION, regionStats(statistics.getQueryRegionStatistics(Team.NAME_QUERY_REGION)));
+		return result;
+	}
+
+	// HQL 쿼리 플랜 캐시 적중률 (in 목록 길이가 다르면 다른 쿼리로 캐시됨 -> in_clause_parameter_padding)
+	@GetMapping("/stats/query-plan-cache")
+	public Map<String, Object> queryPlanCacheStats() {
+		Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+		long hitCount = statistics.getQueryPlanCacheHitCount();
+		long missCount = statistics.getQueryPlanCacheMissCount();
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("hitCount", hitCount);
+		result.put("missCount", missCount);
+		result.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double)hitCount / (hitCount + missCount));
+		result.put("inListChunkSize", inListChunker.getChunkSize());
+		return result;
+	}
+
+	private Map<String, Object> regionStats(CacheRegionStatistics stats) {
+		Map<String, Object> result = new LinkedHashMap<>();
+		if (stats == null) {
+			return result;
+		}
+		long hitCount = stats.getHitCount();
+		long missCount = stats.getMissCount();
+		result.put("hitCount", hitCount);
+		result.put("missCount", missCount);
+		result.put("putCount", stats.getPutCount());
+		result.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double)hitCount / (hitCount + missCount));
+		result.put("elementCount", stats.getElementCountInMemory());
+		return result;
+	}
+}
@@ -0,0 +1,88 @@
+package study.querydsl.dto;
+
+import java.util.Arrays;
+
+/**
+ * 회원 id, 나이, 팀 id 를 행 객체 없이 기본형 배열(열 단위)로 보관
+ * - 배열 길이는 capacity, 유효한 값은 0 ~ size-1
+ * - 팀이 없으면 teamId 는 NO_TEAM(0)
+ */
+public class MemberColumns {
+
+	public static final long NO_TEAM = 0L;
+
+	private long[] memberIds;
+	private int[] ages;
+	private long[] teamIds;
+	private int size;
+
+	public MemberColumns(int capacity) {
+		this.memberIds = new long[capacity];
+		this.ages = new int[capacity];
+		this.teamIds = new long[capacity];
+	}
+
+	public void add(long memberId, int age, long teamId) {
+		if (size == memberIds.length) {
+			grow(size + 1);
+		}
+		memberIds[size] = memberId;
+		ages[size] = age;
+		teamIds[size] = teamId;
+		size++;
+	}
+
+	public void addAll(MemberColumns other) {
+		if (size + other.size > memberIds.length) {
+			grow(size + other.size);
+		}
+		System.arraycopy(other.memberIds, 0, memberIds, size, other.size);
+		System.arraycopy(other.ages, 0, ages, size, other.size);
+		System.arraycopy(other.teamIds, 0, teamIds, size, other.size);
+		size += other.size;
+	}
+
+	public boolean isFull() {
+		return size == memberIds.length;
+	}
+
+	// 배열은 그대로 두고 다음 chunk 를 채움
+	public void clear() {
+		size = 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public long memberId(int index) {
+		return memberIds[index];
+	}
+
+	public int age(int index) {
+		return ages[index];
+	}
+
+	public long teamId(int index) {
+		return teamIds[index];
+	}
+
+	public long[] getMemberIds() {
+		return memberIds;
+	}
+
+	public int[] getAges() {
+		return ages;
+	}
+
+	public long[] getTeamIds() {
+		return teamIds;
+	}
+
+	private void grow(int minCapacity) {
+		int capacity = Math.max(minCapacity, Math.max(memberIds.length * 2, 16));
+		memberIds = Arrays.copyOf(memberIds, capacity);
+		ages = Arrays.copyOf(ages, capacity);
+		teamIds = Arrays.copyOf(teamIds, capacity);
+	}
+}
@@ -0,0 +1,44 @@
+package study.querydsl.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.springframework.util.StringUtils;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 키셋(커서) 페이징 위치 - (age, memberId) 정렬 키의 마지막 값
+ */
+@Data
+@AllArgsConstructor
+public class MemberCursor {
+
+	private int age;
+	private Long memberId;
+
+	public static MemberCursor from(MemberTeamDto last) {
+		return new MemberCursor(last.getAge(), last.getMemberId());
+	}
+
+	// 클라이언트에는 불투명한 문자열로 전달
+	public String encode() {
+		String raw = age + ":" + memberId;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static MemberCursor decode(String cursor) {
+		if (!StringUtils.hasText(cursor)) {
+			return null;
+		}
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int separator = raw.indexOf(':');
+			return new MemberCursor(Integer.parseInt(raw.substring(0, separator)),
+				Long.parseLong(raw.substring(separator + 1)));
+		} catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
+			throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package study.querydsl.dto;
+
+import java.util.List;
+
+import org.springframework.data.domain.Slice;
+
+import lombok.Data;
+
+@Data
+public class MemberCursorPage {
+
+	private List<MemberTeamDto> content;
+	private String nextCursor;
+	private boolean hasNext;
+
+	public MemberCursorPage(List<MemberTeamDto> content, String nextCursor, boolean hasNext) {
+		this.content = content;
+		this.nextCursor = nextCursor;
+		this.hasNext = hasNext;
+	}
+
+	public static MemberCursorPage of(Slice<MemberTeamDto> slice) {
+		List<MemberTeamDto> content = slice.getContent();
+		String nextCursor = slice.hasNext() && !content.isEmpty()
+			? MemberCursor.from(content.get(content.size() - 1)).encode()
+			: null;
+		return new MemberCursorPage(content, nextCursor, slice.hasNext());
+	}
+}
@@ -1,5 +1,12 @@
 package study.querydsl.dto;
 
+import static org.springframework.util.StringUtils.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+
 import lombok.Data;
 
 @Data
@@ -7,7 +14,44 @@ public class MemberSearchCondition {
 	// 회원명, 팀명, 나이(ageGoe, ageLoe)
 
 	private String username;
+	// username 비교 방식 (null 이면 EXACT)
+	private UsernameMatch usernameMatch;
 	private String teamName;
 	private Integer ageGoe;
 	private Integer ageLoe;
+
+	// 여러 값 조건 (in), 비어 있으면 조건 없음
+	private List<String> usernames;
+	private List<String> teamNames;
+	private List<Long> teamIds;
+
+	// 빈 문자열은 조건 없음과 같으므로 null 로 맞춘 사본 (캐시 키 등에 사용)
+	public MemberSearchCondition normalize() {
+		MemberSearchCondition normalized = new MemberSearchCondition();
+		normalized.setUsername(hasText(username) ? username : null);
+		normalized.setUsernameMatch(hasText(username) && usernameMatch != UsernameMatch.EXACT ? usernameMatch : null);
+		normalized.setTeamName(hasText(teamName) ? teamName : null);
+		normalized.setAgeGoe(ageGoe);
+		normalized.setAgeLoe(ageLoe);
+		// 순서, 중복이 달라도 같은 조건
+		normalized.setUsernames(normalize(usernames));
+		normalized.setTeamNames(normalize(teamNames));
+		normalized.setTeamIds(normalize(teamIds));
+		return normalized;
+	}
+
+	public boolean hasMultiValueFilters() {
+		return usernames != null && !usernames.isEmpty()
+			|| teamNames != null && !teamNames.isEmpty()
+			|| teamIds != null && !teamIds.isEmpty();
+	}
+
+	private static <T extends Comparable<T>> List<T> normalize(List<T> values) {
+		if (values == null) {
+			return null;
+		}
+		TreeSet<T> sorted = new TreeSet<>();
+		values.stream().filter(Objects::nonNull).forEach(sorted::add);
+		return sorted.isEmpty() ? null : new ArrayList<>(sorted);
+	}
 }
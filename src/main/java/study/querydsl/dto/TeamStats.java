@@ -0,0 +1,28 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 팀별 회원 수, 나이 합계/평균/최소/최대 (TeamStatisticsService 가 유지하는 불변 스냅샷)
+ */
+@Getter
+@ToString
+public class TeamStats {
+
+	private final Long teamId;
+	private final long count;
+	private final long ageSum;
+	private final double ageAvg;
+	private final Integer ageMin;
+	private final Integer ageMax;
+
+	public TeamStats(Long teamId, long count, long ageSum, Integer ageMin, Integer ageMax) {
+		this.teamId = teamId;
+		this.count = count;
+		this.ageSum = ageSum;
+		this.ageAvg = count == 0 ? 0 : (double)ageSum / count;
+		this.ageMin = ageMin;
+		this.ageMax = ageMax;
+	}
+}
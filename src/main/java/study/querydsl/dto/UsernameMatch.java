@@ -0,0 +1,9 @@
+package study.querydsl.dto;
+
+/**
+ * MemberSearchCondition.username 비교 방식 (기본 EXACT)
+ * PREFIX, CONTAINS 는 메모리 username 인덱스(UsernameIndex)로 회원 id 를 찾아서 조회
+ */
+public enum UsernameMatch {
+	EXACT, PREFIX, CONTAINS
+}
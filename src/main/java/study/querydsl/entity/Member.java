@@ -2,24 +2,43 @@ package study.querydsl.entity;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
 
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import study.querydsl.event.EntityChangeListener;
 
 @Entity
+@Table(indexes = {
+	@Index(name = "idx_member_username", columnList = "username"),
+	// ageGoe/ageLoe 범위 조건 + 커서 페이징 (age, id) 정렬
+	@Index(name = "idx_member_age_id", columnList = "age, member_id"),
+	// teamName 조건은 team 에서 member 로 조인하므로 team_id 선두, 나이 범위까지 함께 사용
+	@Index(name = "idx_member_team_age", columnList = "team_id, age")
+})
+@NamedEntityGraph(name = "Member.team", attributeNodes = @NamedAttributeNode("team"))
+@EntityListeners(EntityChangeListener.class)
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of={"id","username", "age"})
 public class Member {
-	@Id @GeneratedValue
+	// 시퀀스를 allocationSize 만큼 한번에 확보 -> insert 마다 시퀀스 조회를 하지 않음 (jdbc batch 가능)
+	@Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq")
+	@SequenceGenerator(name = "member_seq", sequenceName = "member_seq", allocationSize = 50)
 	@Column(name = "member_id")
 	private Long id;
 	private String username;
@@ -3,27 +3,51 @@ package study.querydsl.entity;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.OneToMany;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import study.querydsl.event.EntityChangeListener;
 
 @Entity
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name"))
+// 팀은 적고 거의 바뀌지 않으므로 2차 캐시 (member.team 지연 로딩, em.find)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Team.CACHE_REGION)
+// member.team 프록시를 초기화할 때 영속성 컨텍스트의 다른 팀 프록시도 in 쿼리로 100개씩 함께 로딩
+@BatchSize(size = 100)
+@EntityListeners(EntityChangeListener.class)
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of={"id","name"})
 public class Team {
 
-	@Id @GeneratedValue
+	public static final String CACHE_REGION = "team";
+	public static final String NAME_QUERY_REGION = "team-name";
+
+	@Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq")
+	@SequenceGenerator(name = "team_seq", sequenceName = "team_seq", allocationSize = 50)
 	private Long id;
 	private String name;
 
+	// 여러 팀의 members 를 초기화할 때 in 쿼리로 100개 팀씩 함께 로딩
+	@BatchSize(size = 100)
 	@OneToMany(mappedBy = "team")
 	List<Member> members = new ArrayList<>();
 
@@ -0,0 +1,51 @@
+package study.querydsl.event;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 현재 트랜잭션이 끝난 뒤(커밋 또는 롤백) 실행할 작업 등록
+ * - 엔티티 이벤트마다 호출해도 key 별로 트랜잭션당 한번만 등록 (key 를 트랜잭션 리소스로 바인딩)
+ * - 커밋 전에 비운 캐시에 다른 트랜잭션이 이전 값을 다시 채울 수 있으므로 완료 시점에 한번 더 비울 때 사용
+ */
+public final class AfterCompletion {
+
+	private AfterCompletion() {
+	}
+
+	/**
+	 * 트랜잭션 동기화가 없으면 등록하지 않고 false (필요하면 호출한 쪽에서 바로 실행)
+	 */
+	public static boolean runOnce(Object key, Runnable action) {
+		return bindOnce(key, () -> Boolean.TRUE, value -> action.run()) != null;
+	}
+
+	/**
+	 * 트랜잭션마다 create 로 만든 값을 key 에 바인딩하고, 트랜잭션이 끝나면 그 값으로 action 실행
+	 * 같은 트랜잭션에서는 처음 만든 값을 반환 (트랜잭션 동안 모은 값을 완료 시점에 한번에 반영할 때 사용)
+	 * 트랜잭션 동기화가 없으면 null
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T bindOnce(Object key, Supplier<T> create, Consumer<T> action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return null;
+		}
+		T bound = (T)TransactionSynchronizationManager.getResource(key);
+		if (bound == null) {
+			T value = create.get();
+			TransactionSynchronizationManager.bindResource(key, value);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(key);
+					action.accept(value);
+				}
+			});
+			bound = value;
+		}
+		return bound;
+	}
+}
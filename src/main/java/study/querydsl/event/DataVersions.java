@@ -0,0 +1,67 @@
+package study.querydsl.event;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+/**
+ * Member, Team 테이블 데이터 버전 (쓰기마다 증가)
+ * - 검색 응답 ETag 를 버전 + 요청 조건으로 만들어서 변경이 없으면 DB 조회 없이 304
+ * - 커밋 전에 올린 버전으로 이전 데이터가 캐시되지 않도록 트랜잭션 완료 시점에 한번 더 올림
+ * - 서버 재시작시 버전이 0 부터 다시 시작하므로 기동마다 다른 epoch 를 ETag 에 포함
+ */
+@Component
+public class DataVersions {
+
+	private final String epoch = UUID.randomUUID().toString();
+	private final AtomicLong memberVersion = new AtomicLong();
+	private final AtomicLong teamVersion = new AtomicLong();
+
+	@EventListener
+	public void onEntityChange(EntityChangeEvent event) {
+		AtomicLong version = versionOf(event);
+		if (version == null) {
+			return;
+		}
+		version.incrementAndGet();
+		AfterCompletion.runOnce(version, version::incrementAndGet);
+	}
+
+	private AtomicLong versionOf(EntityChangeEvent event) {
+		if (event.isFor(Member.class)) {
+			return memberVersion;
+		}
+		if (event.isFor(Team.class)) {
+			return teamVersion;
+		}
+		return null;
+	}
+
+	public long getMemberVersion() {
+		return memberVersion.get();
+	}
+
+	public long getTeamVersion() {
+		return teamVersion.get();
+	}
+
+	/**
+	 * 현재 Member, Team 버전과 요청 식별값(엔드포인트, 정규화한 조건, 페이지)으로 만든 weak ETag
+	 */
+	public String etag(Object... parts) {
+		StringBuilder source = new StringBuilder(epoch)
+			.append(':').append(memberVersion.get())
+			.append(':').append(teamVersion.get());
+		for (Object part : parts) {
+			source.append(':').append(part);
+		}
+		return "W/\"" + DigestUtils.md5DigestAsHex(source.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+	}
+}
@@ -0,0 +1,39 @@
+package study.querydsl.event;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Member, Team 등 엔티티 쓰기 이벤트 (EntityChangeListener 가 발행)
+ * 벌크 연산은 엔티티 없이 BULK 타입으로 발행 (MemberBulkRepository)
+ */
+@Getter
+@ToString
+public class EntityChangeEvent {
+
+	public enum Type {
+		PERSIST, UPDATE, REMOVE, BULK
+	}
+
+	private final Object entity;
+	private final Class<?> entityType;
+	private final Type type;
+
+	public EntityChangeEvent(Object entity, Type type) {
+		this(entity, entity.getClass(), type);
+	}
+
+	private EntityChangeEvent(Object entity, Class<?> entityType, Type type) {
+		this.entity = entity;
+		this.entityType = entityType;
+		this.type = type;
+	}
+
+	public static EntityChangeEvent bulk(Class<?> entityType) {
+		return new EntityChangeEvent(null, entityType, Type.BULK);
+	}
+
+	public boolean isFor(Class<?> entityClass) {
+		return entityClass.isAssignableFrom(entityType);
+	}
+}
@@ -0,0 +1,37 @@
+package study.querydsl.event;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * JPA 엔티티 리스너 -> 스프링 이벤트로 변환
+ * 하이버네이트가 SpringBeanContainer 를 통해 빈으로 생성함
+ * (querydsl update/delete 벌크 연산은 영속성 컨텍스트를 거치지 않으므로 이벤트가 발생하지 않음)
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityChangeListener {
+
+	private final ApplicationEventPublisher publisher;
+
+	@PostPersist
+	public void postPersist(Object entity) {
+		publisher.publishEvent(new EntityChangeEvent(entity, EntityChangeEvent.Type.PERSIST));
+	}
+
+	@PostUpdate
+	public void postUpdate(Object entity) {
+		publisher.publishEvent(new EntityChangeEvent(entity, EntityChangeEvent.Type.UPDATE));
+	}
+
+	@PostRemove
+	public void postRemove(Object entity) {
+		publisher.publishEvent(new EntityChangeEvent(entity, EntityChangeEvent.Type.REMOVE));
+	}
+}
@@ -0,0 +1,161 @@
+package study.querydsl.repository;
+
+import static study.querydsl.entity.QMember.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+
+import study.querydsl.entity.Member;
+import study.querydsl.event.EntityChangeEvent;
+import study.querydsl.repository.support.BulkOptions;
+import study.querydsl.repository.support.BulkProgress;
+
+/**
+ * 청크 단위 벌크 update / delete
+ * - 청크마다 새 트랜잭션에서 조건에 맞는 다음 id chunkSize 개를 찾아(id > 마지막 id order by id limit) 그 범위만 실행하고 커밋
+ *   -> id 가 듬성듬성해도 빈 청크(트랜잭션, 대기)가 생기지 않음
+ * - 청크를 각자 커밋하므로 트랜잭션 안에서 호출할 수 없음 (IllegalStateException)
+ * - 끝나면 OSIV 등으로 묶인 영속성 컨텍스트의 해당 범위 Member 를 분리 -> 다시 조회하면 바뀐 값
+ * - 조건은 member 컬럼만 사용 (update/delete 는 join 불가, 팀 조건은 서브쿼리 사용)
+ */
+@Repository
+public class MemberBulkRepository {
+
+	private final EntityManager em;
+	private final JPAQueryFactory queryFactory;
+	private final TransactionTemplate transactionTemplate;
+	private final ApplicationEventPublisher publisher;
+
+	public MemberBulkRepository(EntityManager em, PlatformTransactionManager transactionManager,
+		ApplicationEventPublisher publisher) {
+		this.em = em;
+		this.queryFactory = new JPAQueryFactory(em);
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.publisher = publisher;
+	}
+
+	public BulkProgress update(Predicate where, Consumer<JPAUpdateClause> changes, BulkOptions options) {
+		return execute(where, options, range -> {
+			JPAUpdateClause update = queryFactory.update(member).where(where, range);
+			changes.accept(update);
+			return update.execute();
+		});
+	}
+
+	public BulkProgress delete(Predicate where, BulkOptions options) {
+		return execute(where, options, range -> queryFactory.delete(member).where(where, range).execute());
+	}
+
+	private BulkProgress execute(Predicate where, BulkOptions options, Function<Predicate, Long> chunk) {
+		// 바깥 트랜잭션의 커밋되지 않은 행은 청크 트랜잭션에서 보이지 않고 락 대기만 생김
+		if (TransactionSynchronizationManager.isActualTransactionActive()) {
+			throw new IllegalStateException("Chunked bulk operations commit each chunk and cannot run in a transaction");
+		}
+
+		int chunkSize = options.getChunkSize();
+		Long matching = queryFactory
+			.select(member.id.count())
+			.from(member)
+			.where(where)
+			.fetchOne();
+		long estimatedChunks = matching == null ? 0 : (matching + chunkSize - 1) / chunkSize;
+		BulkProgress progress = new BulkProgress(0, estimatedChunks, 0, null);
+
+		Long firstId = null;
+		Long lastId = null;
+		while (true) {
+			Long afterId = lastId;
+			long[] result = transactionTemplate.execute(status -> {
+				List<Long> ids = queryFactory
+					.select(member.id)
+					.from(member)
+					.where(where, afterId == null ? null : member.id.gt(afterId))
+					.orderBy(member.id.asc())
+					.limit(chunkSize)
+					.fetch();
+				if (ids.isEmpty()) {
+					return null;
+				}
+				long fromId = ids.get(0);
+				long toId = ids.get(ids.size() - 1);
+				// 범위 안의 조건에 맞지 않는 행은 where 로 다시 거름
+				return new long[] {chunk.apply(member.id.between(fromId, toId)), fromId, toId, ids.size()};
+			});
+			if (result == null) {
+				break;
+			}
+			if (firstId == null) {
+				firstId = result[1];
+			}
+			lastId = result[2];
+			progress = progress.next(result[0], lastId);
+			// 찾은 id 가 chunkSize 보다 적으면 마지막 청크
+			boolean last = result[3] < chunkSize;
+			if (last) {
+				progress = progress.finish();
+			}
+			options.getListener().accept(progress);
+			if (last) {
+				break;
+			}
+			pause(options);
+		}
+
+		if (firstId != null) {
+			detachFromPersistenceContext(firstId, lastId);
+		}
+		publisher.publishEvent(EntityChangeEvent.bulk(Member.class));
+		return progress.finish();
+	}
+
+	private void detachFromPersistenceContext(long minId, long maxId) {
+		// OSIV 로 묶인 영속성 컨텍스트가 없으면 할 일 없음
+		if (!TransactionSynchronizationManager.hasResource(em.getEntityManagerFactory())) {
+			return;
+		}
+		SessionImplementor session = em.unwrap(SessionImplementor.class);
+		List<Member> affected = new ArrayList<>();
+		for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal()
+			.reentrantSafeEntityEntries()) {
+			if (entry.getKey() instanceof Member) {
+				Member managed = (Member)entry.getKey();
+				if (managed.getId() != null && managed.getId() >= minId && managed.getId() <= maxId) {
+					affected.add(managed);
+				}
+			}
+		}
+		// 트랜잭션 밖이므로 refresh 대신 분리
+		affected.forEach(em::detach);
+	}
+
+	private static void pause(BulkOptions options) {
+		if (options.getPause().isZero()) {
+			return;
+		}
+		try {
+			Thread.sleep(options.getPause().toMillis());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted between bulk chunks", e);
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package study.querydsl.repository;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Hibernate;
+
+import com.querydsl.jpa.impl.JPAQuery;
+
+import study.querydsl.entity.Member;
+
+/**
+ * Member 엔티티 조회시 team 로딩 방식
+ * - NONE: 지연 로딩 (처음 사용할 때 아직 로딩되지 않은 팀을 Team 의 @BatchSize 만큼 in 쿼리로 조회)
+ * - FETCH_JOIN: left join fetch
+ * - ENTITY_GRAPH: Member.team 엔티티 그래프 (javax.persistence.fetchgraph 힌트)
+ * - BATCH_FETCH: NONE 과 같은 in 쿼리를 사용할 때가 아니라 조회 직후 실행 (영속성 컨텍스트를 벗어나도 사용 가능)
+ */
+public enum MemberFetchPlan {
+	NONE, FETCH_JOIN, ENTITY_GRAPH, BATCH_FETCH;
+
+	public static final String TEAM_GRAPH = "Member.team";
+
+	/**
+	 * leftJoin(member.team, team) 바로 다음에 호출 (fetchJoin 은 마지막 join 에 적용됨)
+	 */
+	public <T> JPAQuery<T> apply(JPAQuery<T> query, EntityManager em) {
+		if (this == FETCH_JOIN) {
+			return query.fetchJoin();
+		}
+		if (this == ENTITY_GRAPH) {
+			return query.setHint("javax.persistence.fetchgraph", em.getEntityGraph(TEAM_GRAPH));
+		}
+		return query;
+	}
+
+	/**
+	 * 조회 후 호출, BATCH_FETCH 면 아직 초기화되지 않은 team 프록시를 초기화
+	 * 프록시 하나를 초기화하면 Team 의 @BatchSize 만큼 함께 in 쿼리로 로딩되므로 나머지는 이미 초기화됨
+	 */
+	public List<Member> afterLoad(List<Member> members, EntityManager em) {
+		if (this != BATCH_FETCH) {
+			return members;
+		}
+		for (Member member : members) {
+			if (!Hibernate.isInitialized(member.getTeam())) {
+				Hibernate.initialize(member.getTeam());
+			}
+		}
+		return members;
+	}
+}
@@ -0,0 +1,265 @@
+package study.querydsl.repository;
+
+import static org.springframework.util.StringUtils.*;
+import static study.querydsl.entity.QMember.*;
+import static study.querydsl.entity.QTeam.*;
+import static study.querydsl.repository.support.InListChunker.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.dto.TeamStats;
+import study.querydsl.dto.UsernameMatch;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.AfterCompletion;
+import study.querydsl.event.EntityChangeEvent;
+import study.querydsl.repository.support.InListChunker;
+import study.querydsl.repository.support.PredicateCompiler;
+import study.querydsl.repository.support.UsernameIndex;
+import study.querydsl.service.TeamStatisticsService;
+
+/**
+ * 같은 querydsl Predicate 를 메모리 또는 SQL 로 실행
+ * - 팀 조건(team.name / member.team.id)이 있으면 해당 팀 회원 행(MemberTeamDto)을 팀별로 캐시해서 메모리에서 필터
+ * - 팀 회원 수(TeamStatisticsService) 합이 max-rows 이하일 때만 메모리 실행 (비용 추정), 아니면 SQL
+ * - 팀 조건이 없거나(캐시 범위 밖), 변환할 수 없는 식이거나, 쓰기 트랜잭션 안이면 SQL
+ * - Member, Team 쓰기 시 캐시 전체 무효화 (CountCache 와 같은 방식)
+ * - 결과는 회원 id 순
+ * - 검색 조건의 in 목록이 chunk-size 를 넘으면 나눠서 실행하고 합침 (InListChunker)
+ * - username PREFIX / CONTAINS 는 리포지토리와 같이 UsernameIndex 의 조건 사용
+ * - /v5/members 에서 사용
+ */
+@Repository
+@Transactional(readOnly = true)
+public class MemberHybridExecutor {
+
+	private static final Map<String, Function<MemberTeamDto, Object>> ACCESSORS = new HashMap<>();
+
+	static {
+		ACCESSORS.put(member.id.toString(), MemberTeamDto::getMemberId);
+		ACCESSORS.put(member.username.toString(), MemberTeamDto::getUsername);
+		ACCESSORS.put(member.age.toString(), MemberTeamDto::getAge);
+		ACCESSORS.put(member.team.id.toString(), MemberTeamDto::getTeamId);
+		ACCESSORS.put(member.team.name.toString(), MemberTeamDto::getTeamName);
+		ACCESSORS.put(team.id.toString(), MemberTeamDto::getTeamId);
+		ACCESSORS.put(team.name.toString(), MemberTeamDto::getTeamName);
+	}
+
+	private final JPAQueryFactory queryFactory;
+	private final TeamRepository teamRepository;
+	private final TeamStatisticsService teamStatisticsService;
+	private final MeterRegistry meterRegistry;
+	private final InListChunker inListChunker;
+	private final UsernameIndex usernameIndex;
+	private final boolean enabled;
+	private final long maxRows;
+	private final Cache<Long, List<MemberTeamDto>> teamRows;
+
+	public MemberHybridExecutor(EntityManager em, TeamRepository teamRepository,
+		TeamStatisticsService teamStatisticsService, MeterRegistry meterRegistry, InListChunker inListChunker,
+		UsernameIndex usernameIndex,
+		@Value("${member.hybrid.enabled:true}") boolean enabled,
+		@Value("${member.hybrid.max-rows:1000}") long maxRows,
+		@Value("${member.hybrid.max-teams:1000}") long maxTeams,
+		@Value("${member.hybrid.ttl:5m}") Duration ttl) {
+		this.queryFactory = new JPAQueryFactory(em);
+		this.teamRepository = teamRepository;
+		this.teamStatisticsService = teamStatisticsService;
+		this.meterRegistry = meterRegistry;
+		this.inListChunker = inListChunker;
+		this.usernameIndex = usernameIndex;
+		this.enabled = enabled;
+		this.maxRows = maxRows;
+		this.teamRows = Caffeine.newBuilder()
+			.maximumSize(maxTeams)
+			.expireAfterWrite(ttl)
+			.build();
+	}
+
+	public List<MemberTeamDto> search(MemberSearchCondition condition) {
+		// 조건마다 결과가 id 순이므로 나눴을 때도 id 순으로 정렬
+		return inListChunker.searchEach(condition, chunk -> search(new BooleanBuilder()
+			.and(usernameMatches(chunk.getUsername(), chunk.getUsernameMatch()))
+			.and(teamNameEq(chunk.getTeamName()))
+			.and(ageGoe(chunk.getAgeGoe()))
+			.and(ageLoe(chunk.getAgeLoe()))
+			.and(inListsOf(chunk))), Comparator.comparing(MemberTeamDto::getMemberId));
+	}
+
+	public List<MemberTeamDto> search(Predicate predicate) {
+		Set<Long> teamIds = enabled && !inWriteTransaction() ? teamIdsOf(predicate) : null;
+		if (teamIds != null && isSmall(teamIds)) {
+			try {
+				java.util.function.Predicate<MemberTeamDto> filter = PredicateCompiler.compile(predicate,
+					path -> ACCESSORS.get(path.toString()));
+				List<MemberTeamDto> result = new ArrayList<>();
+				for (Long teamId : teamIds) {
+					for (MemberTeamDto row : teamRows.get(teamId, this::loadTeam)) {
+						if (filter.test(row)) {
+							// 캐시된 행을 호출자가 바꾸지 못하도록 복사
+							result.add(new MemberTeamDto(row.getMemberId(), row.getUsername(), row.getAge(),
+								row.getTeamId(), row.getTeamName()));
+						}
+					}
+				}
+				result.sort(Comparator.comparing(MemberTeamDto::getMemberId));
+				meterRegistry.counter("querydsl.hybrid", "mode", "memory").increment();
+				return result;
+			} catch (UnsupportedOperationException e) {
+				// 메모리에서 평가할 수 없는 식 -> SQL
+			}
+		}
+		meterRegistry.counter("querydsl.hybrid", "mode", "sql").increment();
+		return queryFactory
+			.select(new QMemberTeamDto(
+				member.id.as("memberId"), member.username
+				, member.age, team.id.as("teamId"),
+				team.name.as("teamName")
+			))
+			.from(member)
+			.leftJoin(member.team, team)
+			.where(predicate)
+			.orderBy(member.id.asc())
+			.fetch();
+	}
+
+	// 쓰기 트랜잭션은 커밋 전 변경이 있을 수 있음 -> 공유 캐시를 채우거나 읽지 않고 SQL
+	private static boolean inWriteTransaction() {
+		return TransactionSynchronizationManager.isActualTransactionActive()
+			&& !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+	}
+
+	// 팀 회원 수를 모르면(통계 미집계) 크다고 보고 SQL
+	private boolean isSmall(Set<Long> teamIds) {
+		long rows = 0;
+		for (Long teamId : teamIds) {
+			List<MemberTeamDto> cached = teamRows.getIfPresent(teamId);
+			if (cached != null) {
+				rows += cached.size();
+				continue;
+			}
+			TeamStats stats = teamStatisticsService.get(teamId);
+			if (stats == null) {
+				return false;
+			}
+			rows += stats.getCount();
+		}
+		return rows <= maxRows;
+	}
+
+	private List<MemberTeamDto> loadTeam(Long teamId) {
+		return queryFactory
+			.select(new QMemberTeamDto(
+				member.id.as("memberId"), member.username
+				, member.age, team.id.as("teamId"),
+				team.name.as("teamName")
+			))
+			.from(member)
+			.join(member.team, team)
+			.where(team.id.eq(teamId))
+			.fetch();
+	}
+
+	/**
+	 * 최상위 and 조건 중 팀을 한정하는 조건의 team id 목록 (없으면 null -> 캐시 범위 밖)
+	 * 한정 조건 하나만 있으면 결과가 그 팀 안에 있으므로 나머지 조건은 메모리 필터로 평가
+	 */
+	private Set<Long> teamIdsOf(Predicate predicate) {
+		List<Expression<?>> conjuncts = new ArrayList<>();
+		collectConjuncts(predicate instanceof BooleanBuilder ? ((BooleanBuilder)predicate).getValue() : predicate,
+			conjuncts);
+		for (Expression<?> conjunct : conjuncts) {
+			if (!(conjunct instanceof Operation)) {
+				continue;
+			}
+			Operation<?> operation = (Operation<?>)conjunct;
+			if ((operation.getOperator() != Ops.EQ && operation.getOperator() != Ops.IN)
+				|| !(operation.getArg(0) instanceof Path) || !(operation.getArg(1) instanceof Constant)) {
+				continue;
+			}
+			String path = operation.getArg(0).toString();
+			Object value = ((Constant<?>)operation.getArg(1)).getConstant();
+			Collection<?> values = value instanceof Collection ? (Collection<?>)value : List.of(value);
+			if (path.equals(team.id.toString()) || path.equals(member.team.id.toString())) {
+				Set<Long> ids = new LinkedHashSet<>();
+				values.forEach(id -> ids.add(((Number)id).longValue()));
+				return ids;
+			}
+			if (path.equals(team.name.toString()) || path.equals(member.team.name.toString())) {
+				Set<Long> ids = new LinkedHashSet<>();
+				values.forEach(name -> ids.addAll(teamRepository.findIdsByName((String)name)));
+				return ids;
+			}
+		}
+		return null;
+	}
+
+	private static void collectConjuncts(Expression<?> expression, List<Expression<?>> conjuncts) {
+		if (expression instanceof Operation && ((Operation<?>)expression).getOperator() == Ops.AND) {
+			for (Expression<?> arg : ((Operation<?>)expression).getArgs()) {
+				collectConjuncts(arg, conjuncts);
+			}
+		} else if (expression != null) {
+			conjuncts.add(expression);
+		}
+	}
+
+	@EventListener
+	public void onEntityChange(EntityChangeEvent event) {
+		if (!event.isFor(Member.class) && !event.isFor(Team.class)) {
+			return;
+		}
+		teamRows.invalidateAll();
+		// CountCache 와 같이 트랜잭션 완료 시점에 한번 더 비움
+		AfterCompletion.runOnce(this, teamRows::invalidateAll);
+	}
+
+	private BooleanExpression usernameMatches(String username, UsernameMatch usernameMatch) {
+		return usernameIndex.predicate(username, usernameMatch);
+	}
+
+	private BooleanExpression teamNameEq(String teamName) {
+		return hasText(teamName) ? team.name.eq(teamName) : null;
+	}
+
+	private BooleanExpression ageGoe(Integer ageGoe) {
+		return ageGoe != null ? member.age.goe(ageGoe) : null;
+	}
+
+	private BooleanExpression ageLoe(Integer ageLoe) {
+		return ageLoe != null ? member.age.loe(ageLoe) : null;
+	}
+}
@@ -3,6 +3,7 @@ package study.querydsl.repository;
 import static org.springframework.util.StringUtils.*;
 import static study.querydsl.entity.QMember.*;
 import static study.querydsl.entity.QTeam.*;
+import static study.querydsl.repository.support.InListChunker.*;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,28 +11,38 @@ import java.util.Optional;
 import javax.persistence.EntityManager;
 
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.dto.UsernameMatch;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QTeam;
+import study.querydsl.repository.support.Coalesced;
+import study.querydsl.repository.support.InListChunker;
+import study.querydsl.repository.support.UsernameIndex;
 
 @Repository
 public class MemberJpaRepository {
 
 	private final EntityManager em;
 	private final JPAQueryFactory queryFactory;
+	private final UsernameIndex usernameIndex;
+	private final InListChunker inListChunker;
 
-	public MemberJpaRepository(EntityManager em) {
+	public MemberJpaRepository(EntityManager em, UsernameIndex usernameIndex, InListChunker inListChunker) {
 		this.em = em;
 		queryFactory = new JPAQueryFactory(em);
+		this.usernameIndex = usernameIndex;
+		this.inListChunker = inListChunker;
 	}
 
 	public void save(Member member) {
@@ -67,11 +78,12 @@ public class MemberJpaRepository {
 			.fetch();
 	}
 
+	@Transactional(readOnly = true)
 	public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
 
 		BooleanBuilder builder = new BooleanBuilder();
 		if (hasText(condition.getUsername())) {
-			builder.and(member.username.eq(condition.getUsername()));
+			builder.and(usernameIndex.predicate(condition.getUsername(), condition.getUsernameMatch()));
 		}
 		if (hasText(condition.getTeamName())) {
 			builder.and(team.name.eq(condition.getTeamName()));
@@ -82,6 +94,15 @@ public class MemberJpaRepository {
 		if (condition.getAgeLoe() != null) {
 			builder.and(member.age.loe(condition.getAgeLoe()));
 		}
+		if (condition.getUsernames() != null && !condition.getUsernames().isEmpty()) {
+			builder.and(member.username.in(condition.getUsernames()));
+		}
+		if (condition.getTeamNames() != null && !condition.getTeamNames().isEmpty()) {
+			builder.and(team.name.in(condition.getTeamNames()));
+		}
+		if (condition.getTeamIds() != null && !condition.getTeamIds().isEmpty()) {
+			builder.and(member.team.id.in(condition.getTeamIds()));
+		}
 
 		return queryFactory
 			.select(new QMemberTeamDto(
@@ -95,7 +116,17 @@ public class MemberJpaRepository {
 			.fetch();
 	}
 
+	@Coalesced
+	@Transactional(readOnly = true)
 	public List<MemberTeamDto> search(MemberSearchCondition condition) {
+		return inListChunker.searchEach(condition, this::searchChunk);
+	}
+
+	private List<MemberTeamDto> searchChunk(MemberSearchCondition condition) {
+		// 조건 조합(shape)별로 미리 직렬화한 쿼리에 값만 바인딩
+		if (MemberSearchTemplate.supports(condition)) {
+			return MemberSearchTemplate.search(em, condition);
+		}
 		return queryFactory
 			.select(new QMemberTeamDto(
 				member.id.as("memberId"), member.username
@@ -105,26 +136,34 @@ public class MemberJpaRepository {
 			.from(member)
 			.leftJoin(member.team, team)
 			.where(
-				usernameEq(condition.getUsername()),
+				usernameMatches(condition.getUsername(), condition.getUsernameMatch()),
 				teamNameEq(condition.getTeamName()),
 				ageGoe(condition.getAgeGoe()),
-				ageLoe(condition.getAgeLoe())
+				ageLoe(condition.getAgeLoe()),
+				inListsOf(condition)
 			)
 			.fetch();
 	}
 
 	public List<Member> searchMember(MemberSearchCondition condition) {
-		return queryFactory
+		return searchMember(condition, MemberFetchPlan.NONE);
+	}
+
+	@Transactional(readOnly = true)
+	public List<Member> searchMember(MemberSearchCondition condition, MemberFetchPlan fetchPlan) {
+		JPAQuery<Member> query = queryFactory
 			.select(member)
 			.from(member)
-			.leftJoin(member.team, team)
+			.leftJoin(member.team, team);
+		return fetchPlan.afterLoad(fetchPlan.apply(query, em)
 			.where(
-				usernameEq(condition.getUsername()),
+				usernameMatches(condition.getUsername(), condition.getUsernameMatch()),
 				teamNameEq(condition.getTeamName()),
 				ageGoe(condition.getAgeGoe()),
-				ageLoe(condition.getAgeLoe())
+				ageLoe(condition.getAgeLoe()),
+				inListsOf(condition)
 			)
-			.fetch();
+			.fetch(), em);
 	}
 
 	// 함수끼리 조합가능
@@ -132,8 +171,8 @@ public class MemberJpaRepository {
 		return ageLoe(ageLoe).and(ageGoe(ageGoe));
 	}
 
-	private BooleanExpression usernameEq(String username) {
-		return hasText(username) ? member.username.eq(username) : null;
+	private BooleanExpression usernameMatches(String username, UsernameMatch usernameMatch) {
+		return usernameIndex.predicate(username, usernameMatch);
 	}
 
 	private BooleanExpression teamNameEq(String teamName) {
@@ -3,49 +3,195 @@ package study.querydsl.repository;
 import static org.springframework.util.StringUtils.*;
 import static study.querydsl.entity.QMember.*;
 import static study.querydsl.entity.QTeam.*;
+import static study.querydsl.repository.support.InListChunker.*;
 
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import javax.persistence.EntityManager;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 
+import study.querydsl.dto.MemberColumns;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.dto.UsernameMatch;
+import study.querydsl.repository.support.InListChunker;
+import study.querydsl.repository.support.UsernameIndex;
 
 @Repository
 public class MemberQueryRepository {
 
+	private final EntityManager em;
 	private final JPAQueryFactory queryFactory;
+	private final JdbcTemplate jdbcTemplate;
+	private final int fetchSize;
+	private final UsernameIndex usernameIndex;
+	private final InListChunker inListChunker;
 
-	public MemberQueryRepository(EntityManager em) {
+	public MemberQueryRepository(EntityManager em, JdbcTemplate jdbcTemplate,
+		@Value("${member.export.fetch-size:500}") int fetchSize, UsernameIndex usernameIndex,
+		InListChunker inListChunker) {
+		this.em = em;
 		this.queryFactory = new JPAQueryFactory(em);
+		this.jdbcTemplate = jdbcTemplate;
+		this.fetchSize = fetchSize;
+		this.usernameIndex = usernameIndex;
+		this.inListChunker = inListChunker;
 	}
 
+	@Transactional(readOnly = true)
 	public List<MemberTeamDto> search(MemberSearchCondition condition) {
+		return inListChunker.searchEach(condition, this::searchChunk);
+	}
+
+	private List<MemberTeamDto> searchChunk(MemberSearchCondition condition) {
+		// 조건 조합(shape)별로 미리 직렬화한 쿼리에 값만 바인딩
+		if (MemberSearchTemplate.supports(condition)) {
+			return MemberSearchTemplate.search(em, condition);
+		}
 		return queryFactory
 			.select(new QMemberTeamDto(
 				member.id.as("memberId"), member.username
-				,member.age, team.id.as("teamId"),
+				, member.age, team.id.as("teamId"),
 				team.name.as("teamName")
 			))
 			.from(member)
 			.leftJoin(member.team, team)
 			.where(
-				usernameEq(condition.getUsername()),
+				usernameMatches(condition.getUsername(), condition.getUsernameMatch()),
 				teamNameEq(condition.getTeamName()),
 				ageGoe(condition.getAgeGoe()),
-				ageLoe(condition.getAgeLoe())
+				ageLoe(condition.getAgeLoe()),
+				inListsOf(condition)
 			)
 			.fetch();
 	}
 
-	private BooleanExpression usernameEq(String username) {
-		return hasText(username) ? member.username.eq(username) : null;
+	/**
+	 * 분석용 열 단위 조회 (member_id, age, team_id)
+	 * 결과 크기만큼 배열을 키워가며 채움, 행마다 객체를 만들지 않음
+	 */
+	@Transactional(readOnly = true)
+	public MemberColumns searchColumns(MemberSearchCondition condition) {
+		MemberColumns result = new MemberColumns(fetchSize);
+		scanColumns(condition, fetchSize, result::addAll);
+		return result;
+	}
+
+	/**
+	 * chunkSize 행씩 같은 배열을 재사용해서 consumer 에 넘김 (consumer 밖으로 배열을 보관하면 안됨)
+	 * JDBC 로 직접 조회하므로 아직 flush 되지 않은 변경은 보이지 않음
+	 */
+	@Transactional(readOnly = true)
+	public void scanColumns(MemberSearchCondition condition, int chunkSize, Consumer<MemberColumns> consumer) {
+		MemberColumns chunk = new MemberColumns(chunkSize);
+		// in 목록이 길면 나눈 조건마다 조회해서 같은 배열에 이어서 채움
+		for (MemberSearchCondition split : inListChunker.split(condition)) {
+			List<Object> params = new ArrayList<>();
+			String sql = columnsSql(split, params);
+			jdbcTemplate.query(con -> {
+				PreparedStatement ps = con.prepareStatement(sql);
+				ps.setFetchSize(chunkSize);
+				for (int i = 0; i < params.size(); i++) {
+					ps.setObject(i + 1, params.get(i));
+				}
+				return ps;
+			}, (RowCallbackHandler)rs -> {
+				// getLong 은 null 이면 0 -> NO_TEAM
+				chunk.add(rs.getLong(1), rs.getInt(2), rs.getLong(3));
+				if (chunk.isFull()) {
+					consumer.accept(chunk);
+					chunk.clear();
+				}
+			});
+		}
+		if (chunk.size() > 0) {
+			consumer.accept(chunk);
+		}
+	}
+
+	private String columnsSql(MemberSearchCondition condition, List<Object> params) {
+		StringBuilder sql = new StringBuilder("select m.member_id, m.age, m.team_id from member m");
+		boolean teamNames = condition.getTeamNames() != null && !condition.getTeamNames().isEmpty();
+		if (hasText(condition.getTeamName()) || teamNames) {
+			sql.append(" join team t on t.id = m.team_id");
+		}
+		List<String> where = new ArrayList<>();
+		if (hasText(condition.getUsername())) {
+			addUsername(condition, where, params);
+		}
+		if (hasText(condition.getTeamName())) {
+			where.add("t.name = ?");
+			params.add(condition.getTeamName());
+		}
+		if (condition.getAgeGoe() != null) {
+			where.add("m.age >= ?");
+			params.add(condition.getAgeGoe());
+		}
+		if (condition.getAgeLoe() != null) {
+			where.add("m.age <= ?");
+			params.add(condition.getAgeLoe());
+		}
+		addIn("m.username", condition.getUsernames(), where, params);
+		if (teamNames) {
+			addIn("t.name", condition.getTeamNames(), where, params);
+		}
+		addIn("m.team_id", condition.getTeamIds(), where, params);
+		if (!where.isEmpty()) {
+			sql.append(" where ").append(String.join(" and ", where));
+		}
+		return sql.toString();
+	}
+
+	// hibernate in_clause_parameter_padding 과 같이 파라미터 수를 2의 제곱으로 맞춤 (마지막 값 반복)
+	private static void addIn(String column, List<?> values, List<String> where, List<Object> params) {
+		if (values == null || values.isEmpty()) {
+			return;
+		}
+		int padded = Integer.highestOneBit(values.size() - 1) << 1;
+		padded = Math.max(1, padded);
+		where.add(column + " in (" + String.join(", ", Collections.nCopies(padded, "?")) + ")");
+		params.addAll(values);
+		for (int i = values.size(); i < padded; i++) {
+			params.add(values.get(values.size() - 1));
+		}
+	}
+
+	// PREFIX, CONTAINS 는 인덱스의 id 목록, 인덱스를 쓸 수 없으면 like
+	private void addUsername(MemberSearchCondition condition, List<String> where, List<Object> params) {
+		UsernameMatch match = condition.getUsernameMatch();
+		if (match == null || match == UsernameMatch.EXACT) {
+			where.add("m.username = ?");
+			params.add(condition.getUsername());
+			return;
+		}
+		List<Long> ids = usernameIndex.find(condition.getUsername(), match);
+		if (ids == null) {
+			String escaped = condition.getUsername().replace("!", "!!").replace("%", "!%").replace("_", "!_");
+			where.add("m.username like ? escape '!'");
+			params.add(match == UsernameMatch.PREFIX ? escaped + "%" : "%" + escaped + "%");
+		} else if (ids.isEmpty()) {
+			where.add("1 = 0");
+		} else {
+			// 인덱스가 찾는 id 수는 in 목록 chunk-size 이하 (UsernameIndex)
+			addIn("m.member_id", ids, where, params);
+		}
+	}
+
+	private BooleanExpression usernameMatches(String username, UsernameMatch usernameMatch) {
+		return usernameIndex.predicate(username, usernameMatch);
 	}
 
 	private BooleanExpression teamNameEq(String teamName) {
@@ -3,16 +3,25 @@ package study.querydsl.repository;
 import static org.springframework.util.StringUtils.*;
 import static study.querydsl.entity.QMember.*;
 import static study.querydsl.entity.QTeam.*;
+import static study.querydsl.repository.support.InListChunker.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
 
 import javax.persistence.EntityManager;
 
+import org.hibernate.annotations.QueryHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.repository.support.QuerydslRepositorySupport;
-import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.querydsl.core.QueryResults;
 import com.querydsl.core.types.dsl.BooleanExpression;
@@ -20,19 +29,47 @@ import com.querydsl.jpa.JPQLQuery;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 
+import study.querydsl.dto.MemberCursor;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.dto.UsernameMatch;
 import study.querydsl.entity.Member;
+import study.querydsl.repository.support.Coalesced;
+import study.querydsl.repository.support.CountCache;
+import study.querydsl.repository.support.CountQueryDeriver;
+import study.querydsl.repository.support.InListChunker;
+import study.querydsl.repository.support.MemberSnapshot;
+import study.querydsl.repository.support.PageExecutor;
+import study.querydsl.repository.support.RepositoryMetrics;
+import study.querydsl.repository.support.UsernameIndex;
 
+// 조회 전용 -> replica 로 라우팅 (DataSourceRoutingConfig)
+@Transactional(readOnly = true)
 public class MemberRepositoryImpl
 	// extends QuerydslRepositorySupport
 	implements MemberRepositoryCustom{
 
+	private final EntityManager em;
 	private final JPAQueryFactory queryFactory;
+	private final PageExecutor pageExecutor;
+	private final CountCache countCache;
+	private final RepositoryMetrics metrics;
+	private final UsernameIndex usernameIndex;
+	private final MemberSnapshot memberSnapshot;
+	private final InListChunker inListChunker;
 
-	public MemberRepositoryImpl(EntityManager em) {
+	public MemberRepositoryImpl(EntityManager em, PageExecutor pageExecutor, CountCache countCache,
+		RepositoryMetrics metrics, UsernameIndex usernameIndex,
+		MemberSnapshot memberSnapshot, InListChunker inListChunker) {
+		this.em = em;
 		this.queryFactory = new JPAQueryFactory(em);
+		this.pageExecutor = pageExecutor;
+		this.countCache = countCache;
+		this.metrics = metrics;
+		this.usernameIndex = usernameIndex;
+		this.memberSnapshot = memberSnapshot;
+		this.inListChunker = inListChunker;
 	}
 
 	// public MemberRepositoryImpl(EntityManager em) {
@@ -41,6 +78,7 @@ public class MemberRepositoryImpl
 	// }
 
 	@Override
+	@Coalesced
 	public List<MemberTeamDto> search(MemberSearchCondition condition) {
 
 		// return from(member)
@@ -56,26 +94,40 @@ public class MemberRepositoryImpl
 		// 		team.name.as("teamName")
 		// 	)).fetch();
 
+		return inListChunker.searchEach(condition, this::searchChunk);
+	}
+
+	private List<MemberTeamDto> searchChunk(MemberSearchCondition condition) {
+		// 조건 조합(shape)별로 미리 직렬화한 쿼리에 값만 바인딩
+		if (MemberSearchTemplate.supports(condition)) {
+			return MemberSearchTemplate.search(em, condition);
+		}
 		return queryFactory
 			.select(new QMemberTeamDto(
 				member.id.as("memberId"), member.username
-				,member.age, team.id.as("teamId"),
+				, member.age, team.id.as("teamId"),
 				team.name.as("teamName")
 			))
 			.from(member)
 			.leftJoin(member.team, team)
 			.where(
-				usernameEq(condition.getUsername()),
+				usernameMatches(condition.getUsername(), condition.getUsernameMatch()),
 				teamNameEq(condition.getTeamName()),
 				ageGoe(condition.getAgeGoe()),
-				ageLoe(condition.getAgeLoe())
+				ageLoe(condition.getAgeLoe()),
+				inListsOf(condition)
 			)
 			.fetch();
 	}
 
 	@Override
+	@Coalesced
 	public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
-		QueryResults<MemberTeamDto> results = queryFactory
+		List<MemberSearchCondition> chunks = inListChunker.split(condition);
+		if (chunks.size() > 1) {
+			return searchPageByChunks(chunks, pageable);
+		}
+		JPAQuery<MemberTeamDto> query = queryFactory
 			.select(new QMemberTeamDto(
 				member.id.as("memberId"), member.username
 				, member.age, team.id.as("teamId"),
@@ -84,17 +136,21 @@ public class MemberRepositoryImpl
 			.from(member)
 			.leftJoin(member.team, team)
 			.where(
-				usernameEq(condition.getUsername()),
+				usernameMatches(condition.getUsername(), condition.getUsernameMatch()),
 				teamNameEq(condition.getTeamName()),
 				ageGoe(condition.getAgeGoe()),
-				ageLoe(condition.getAgeLoe())
+				ageLoe(condition.getAgeLoe()),
+				inListsOf(condition)
 			)
+			// in 목록을 나눈 경우(searchPageByChunks)와 같은 순서
+			.orderBy(member.id.asc())
 			.offset(pageable.getOffset())
-			.limit(pageable.getPageSize())
-			.fetchResults();
+			.limit(pageable.getPageSize());
 
-		List<MemberTeamDto> content = results.getResults();
-		long total = results.getTotal();
+		List<MemberTeamDto> content = metrics.content(query::fetch).get();
+		// fetchResults 와 같이 항상 count 를 하지만, 같은 조건이면 캐시된 total 을 사용
+		long total = metrics.count(countCache.cached(Arrays.asList("searchPageSimple", condition.normalize()),
+			countOf(condition, query::fetchCount))).getAsLong();
 
 		return new PageImpl<>(content, pageable, total);
 	}
@@ -125,8 +181,13 @@ public class MemberRepositoryImpl
 	// }
 
 	@Override
+	@Coalesced
 	public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
-		List<MemberTeamDto> content = queryFactory
+		List<MemberSearchCondition> chunks = inListChunker.split(condition);
+		if (chunks.size() > 1) {
+			return searchPageByChunks(chunks, pageable);
+		}
+		JPAQuery<MemberTeamDto> contentQuery = queryFactory
 			.select(new QMemberTeamDto(
 				member.id.as("memberId"), member.username
 				, member.age, team.id.as("teamId"),
@@ -135,17 +196,84 @@ public class MemberRepositoryImpl
 			.from(member)
 			.leftJoin(member.team, team)
 			.where(
-				usernameEq(condition.getUsername()),
+				usernameMatches(condition.getUsername(), condition.getUsernameMatch()),
 				teamNameEq(condition.getTeamName()),
 				ageGoe(condition.getAgeGoe()),
-				ageLoe(condition.getAgeLoe())
-			)
+				ageLoe(condition.getAgeLoe()),
+				inListsOf(condition)
+			);
+
+		// join이 필요없이 simple하게 count를 할 수 있는 경우가 존재 -> 컨텐츠 쿼리에서 count(member) 쿼리를 유도
+		// teamName 조건이 없으면 team left join 도 제거됨
+		LongSupplier total = countCache.cached(Arrays.asList("searchPageComplex", condition.normalize()),
+			countOf(condition, CountQueryDeriver.countOf(em, contentQuery)));
+
+		// 이렇게하면, getPage에서 totalSize를 보고, 시작이거나 크면 함수 자체를 실행하지 않음
+		// count 쿼리는 정렬 없이 유도하고, 내용은 searchPageByChunks 와 같이 id 순
+		return pageExecutor.getPage(pageable, () -> contentQuery
+			.orderBy(member.id.asc())
 			.offset(pageable.getOffset())
 			.limit(pageable.getPageSize())
+			.fetch(), total);
+	}
+
+	@Override
+	@Coalesced
+	public Slice<MemberTeamDto> searchByCursor(MemberSearchCondition condition, MemberCursor cursor, int size) {
+		List<MemberSearchCondition> chunks = inListChunker.split(condition);
+		if (chunks.size() > 1) {
+			// 조건별로 커서 다음 size 건씩 읽어서 (age, id) 순으로 합침
+			List<List<MemberTeamDto>> contents = new ArrayList<>();
+			boolean hasNext = false;
+			for (MemberSearchCondition chunk : chunks) {
+				Slice<MemberTeamDto> slice = searchByCursor(chunk, cursor, size);
+				contents.add(slice.getContent());
+				hasNext |= slice.hasNext();
+			}
+			List<MemberTeamDto> merged = InListChunker.merge(contents,
+				Comparator.comparing(MemberTeamDto::getAge).thenComparing(MemberTeamDto::getMemberId), 0, size + 1);
+			hasNext |= merged.size() > size;
+			return new SliceImpl<>(merged.subList(0, Math.min(size, merged.size())), Pageable.ofSize(size), hasNext);
+		}
+		// offset 없이 (age, id) 기준으로 마지막 위치 다음부터 읽음 -> 깊은 페이지도 첫 페이지와 비용이 같음
+		List<MemberTeamDto> content = queryFactory
+			.select(new QMemberTeamDto(
+				member.id.as("memberId"), member.username
+				, member.age, team.id.as("teamId"),
+				team.name.as("teamName")
+			))
+			.from(member)
+			.leftJoin(member.team, team)
+			.where(
+				usernameMatches(condition.getUsername(), condition.getUsernameMatch()),
+				teamNameEq(condition.getTeamName()),
+				ageGoe(condition.getAgeGoe()),
+				ageLoe(condition.getAgeLoe()),
+				inListsOf(condition),
+				afterCursor(cursor)
+			)
+			.orderBy(member.age.asc(), member.id.asc())
+			.limit(size + 1)
 			.fetch();
 
-		// join이 필요없이 simple하게 count를 할 수 있는 경우가 존재 , 이렇게 하면 좀더 최적화가능
-		JPAQuery<MemberTeamDto> countQuery = queryFactory
+		// 한 건 더 읽어서 다음 페이지 존재 여부 판단
+		boolean hasNext = content.size() > size;
+		if (hasNext) {
+			content = content.subList(0, size);
+		}
+		return new SliceImpl<>(content, Pageable.ofSize(size), hasNext);
+	}
+
+	@Override
+	public Stream<MemberTeamDto> searchStream(MemberSearchCondition condition, int fetchSize) {
+		List<MemberSearchCondition> chunks = inListChunker.split(condition);
+		if (chunks.size() > 1) {
+			// 조건별 스트림을 차례로 열고 닫음
+			return chunks.stream().flatMap(chunk -> searchStream(chunk, fetchSize));
+		}
+		// 전체 List 를 만들지 않고 forward-only 커서로 fetchSize 만큼씩 읽어옴
+		// DTO 조회라 영속성 컨텍스트에 엔티티가 쌓이지 않음, 트랜잭션 안에서 소비 후 close 해야함
+		return queryFactory
 			.select(new QMemberTeamDto(
 				member.id.as("memberId"), member.username
 				, member.age, team.id.as("teamId"),
@@ -154,18 +282,71 @@ public class MemberRepositoryImpl
 			.from(member)
 			.leftJoin(member.team, team)
 			.where(
-				usernameEq(condition.getUsername()),
+				usernameMatches(condition.getUsername(), condition.getUsernameMatch()),
 				teamNameEq(condition.getTeamName()),
 				ageGoe(condition.getAgeGoe()),
-				ageLoe(condition.getAgeLoe())
-			);
+				ageLoe(condition.getAgeLoe()),
+				inListsOf(condition)
+			)
+			.setHint(QueryHints.FETCH_SIZE, fetchSize)
+			.setHint(QueryHints.READ_ONLY, true)
+			.stream();
+	}
 
-		// 이렇게하면, getPage에서 totalSize를 보고, 시작이거나 크면 함수 자체를 실행하지 않음
-		return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchCount);
+	/**
+	 * in 목록을 나눈 조건들의 페이지 (searchPageSimple, searchPageComplex 공통)
+	 * 조건마다 id 순으로 (offset + size) 건씩 읽어서 합친 뒤 자름, total 은 조건별 count 의 합
+	 */
+	private Page<MemberTeamDto> searchPageByChunks(List<MemberSearchCondition> chunks, Pageable pageable) {
+		List<List<MemberTeamDto>> contents = new ArrayList<>();
+		long total = 0;
+		for (MemberSearchCondition chunk : chunks) {
+			JPAQuery<MemberTeamDto> query = queryFactory
+				.select(new QMemberTeamDto(
+					member.id.as("memberId"), member.username
+					, member.age, team.id.as("teamId"),
+					team.name.as("teamName")
+				))
+				.from(member)
+				.leftJoin(member.team, team)
+				.where(
+					usernameMatches(chunk.getUsername(), chunk.getUsernameMatch()),
+					teamNameEq(chunk.getTeamName()),
+					ageGoe(chunk.getAgeGoe()),
+					ageLoe(chunk.getAgeLoe()),
+					inListsOf(chunk)
+				);
+			total += metrics.count(CountQueryDeriver.countOf(em, query)).getAsLong();
+			contents.add(metrics.content(() -> query
+				.orderBy(member.id.asc())
+				.limit(pageable.getOffset() + pageable.getPageSize())
+				.fetch()).get());
+		}
+		List<MemberTeamDto> content = InListChunker.merge(contents, Comparator.comparing(MemberTeamDto::getMemberId),
+			pageable.getOffset(), pageable.getPageSize());
+		return new PageImpl<>(content, pageable, total);
+	}
+
+	// 나이, 팀 조건만 있으면 스냅샷(member.snapshot.enabled)에서 DB 없이 count
+	// 사용 여부는 트랜잭션을 보고 정하므로 count 를 다른 스레드에서 실행하기 전에 호출한 스레드에서 판단
+	private LongSupplier countOf(MemberSearchCondition condition, LongSupplier count) {
+		if (!memberSnapshot.supports(condition)) {
+			return count;
+		}
+		return () -> memberSnapshot.count(condition);
+	}
+
+	private BooleanExpression afterCursor(MemberCursor cursor) {
+		if (cursor == null) {
+			return null;
+		}
+		return member.age.gt(cursor.getAge())
+			.or(member.age.eq(cursor.getAge()).and(member.id.gt(cursor.getMemberId())));
 	}
 
-	private BooleanExpression usernameEq(String username) {
-		return hasText(username) ? member.username.eq(username) : null;
+	// EXACT 는 username =, PREFIX / CONTAINS 는 메모리 인덱스에서 찾은 member.id in (...)
+	private BooleanExpression usernameMatches(String username, UsernameMatch usernameMatch) {
+		return usernameIndex.predicate(username, usernameMatch);
 	}
 
 	private BooleanExpression teamNameEq(String teamName) {
@@ -0,0 +1,59 @@
+package study.querydsl.repository;
+
+import static org.springframework.util.StringUtils.*;
+
+import study.querydsl.dto.MemberSearchCondition;
+
+/**
+ * MemberSearchCondition 의 4개 단일 값 조건(username, teamName, ageGoe, ageLoe) 조합 - 16가지 shape
+ * MemberSearchTemplate, 메트릭 태그, 실행 계획 확인에 사용
+ */
+public final class MemberSearchShape {
+
+	public static final int USERNAME = 1;
+	public static final int TEAM_NAME = 1 << 1;
+	public static final int AGE_GOE = 1 << 2;
+	public static final int AGE_LOE = 1 << 3;
+	public static final int SHAPE_COUNT = 1 << 4;
+
+	private MemberSearchShape() {
+	}
+
+	// usernameEq, teamNameEq, ageGoe, ageLoe 와 같은 기준으로 조건 유무를 판단
+	public static int shapeOf(MemberSearchCondition condition) {
+		int shape = 0;
+		if (hasText(condition.getUsername())) {
+			shape |= USERNAME;
+		}
+		if (hasText(condition.getTeamName())) {
+			shape |= TEAM_NAME;
+		}
+		if (condition.getAgeGoe() != null) {
+			shape |= AGE_GOE;
+		}
+		if (condition.getAgeLoe() != null) {
+			shape |= AGE_LOE;
+		}
+		return shape;
+	}
+
+	// 메트릭 태그 등에 사용하는 이름 (예: username+ageGoe, 조건이 없으면 none)
+	public static String nameOf(int shape) {
+		if (shape == 0) {
+			return "none";
+		}
+		StringBuilder name = new StringBuilder();
+		appendNameIf(name, shape, USERNAME, "username");
+		appendNameIf(name, shape, TEAM_NAME, "teamName");
+		appendNameIf(name, shape, AGE_GOE, "ageGoe");
+		appendNameIf(name, shape, AGE_LOE, "ageLoe");
+		return name.toString();
+	}
+
+	private static void appendNameIf(StringBuilder name, int shape, int flag, String part) {
+		if ((shape & flag) == 0) {
+			return;
+		}
+		name.append(name.length() == 0 ? "" : "+").append(part);
+	}
+}
@@ -0,0 +1,123 @@
+package study.querydsl.repository;
+
+import static org.springframework.util.StringUtils.*;
+import static study.querydsl.entity.QMember.*;
+import static study.querydsl.entity.QTeam.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.dto.UsernameMatch;
+
+/**
+ * search() 의 단일 값 조건 조합(16가지 shape)별 querydsl 쿼리를 JPQL 로 한번만 직렬화해 두고 값만 바인딩
+ * - where 는 리포지토리와 같은 querydsl 식으로 작성하고 값 자리는 Param 으로 남겨서 직렬화
+ * - 매 요청마다 JPAQuery, QMemberTeamDto 생성과 JPQL 직렬화를 하지 않음
+ * - shape 별 JPQL 문자열이 항상 같으므로 하이버네이트 쿼리 플랜 캐시도 항상 적중 (HQL 파싱 1회)
+ */
+public final class MemberSearchTemplate {
+
+	private static final Param<String> USERNAME = new Param<>(String.class, "username");
+	private static final Param<String> TEAM_NAME = new Param<>(String.class, "teamName");
+	private static final Param<Integer> AGE_GOE = new Param<>(Integer.class, "ageGoe");
+	private static final Param<Integer> AGE_LOE = new Param<>(Integer.class, "ageLoe");
+
+	private static final QMemberTeamDto PROJECTION =
+		new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name);
+
+	private static final String[] JPQL = new String[MemberSearchShape.SHAPE_COUNT];
+	// JPQL 의 ?1, ?2 ... 순서대로 Param (또는 상수)
+	private static final List<List<Object>> CONSTANTS = new ArrayList<>(MemberSearchShape.SHAPE_COUNT);
+
+	static {
+		for (int shape = 0; shape < MemberSearchShape.SHAPE_COUNT; shape++) {
+			JPQLSerializer serializer = new JPQLSerializer(HQLTemplates.DEFAULT);
+			serializer.serialize(queryOf(shape).getMetadata(), false, null);
+			JPQL[shape] = serializer.toString();
+			CONSTANTS.add(new ArrayList<>(serializer.getConstants()));
+		}
+	}
+
+	private MemberSearchTemplate() {
+	}
+
+	// 템플릿은 username 완전 일치만 지원 (PREFIX, CONTAINS 는 UsernameIndex 를 거치는 querydsl 쿼리로)
+	// 여러 값 조건(in)도 querydsl 쿼리로
+	public static boolean supports(MemberSearchCondition condition) {
+		if (condition.hasMultiValueFilters()) {
+			return false;
+		}
+		return !hasText(condition.getUsername()) || condition.getUsernameMatch() == null
+			|| condition.getUsernameMatch() == UsernameMatch.EXACT;
+	}
+
+	public static List<MemberTeamDto> search(EntityManager em, MemberSearchCondition condition) {
+		int shape = MemberSearchShape.shapeOf(condition);
+		Query query = em.createQuery(JPQL[shape]);
+		List<Object> values = bindings(shape, condition);
+		for (int i = 0; i < values.size(); i++) {
+			query.setParameter(i + 1, values.get(i));
+		}
+		List<?> rows = query.getResultList();
+		List<MemberTeamDto> result = new ArrayList<>(rows.size());
+		for (Object row : rows) {
+			result.add(row instanceof MemberTeamDto ? (MemberTeamDto)row : PROJECTION.newInstance((Object[])row));
+		}
+		return result;
+	}
+
+	public static String jpqlOf(int shape) {
+		return JPQL[shape];
+	}
+
+	// JPQL 파라미터 순서대로 조건 값
+	public static List<Object> bindings(int shape, MemberSearchCondition condition) {
+		List<Object> constants = CONSTANTS.get(shape);
+		List<Object> values = new ArrayList<>(constants.size());
+		for (Object constant : constants) {
+			values.add(valueOf(constant, condition));
+		}
+		return values;
+	}
+
+	private static Object valueOf(Object constant, MemberSearchCondition condition) {
+		if (constant == USERNAME) {
+			return condition.getUsername();
+		}
+		if (constant == TEAM_NAME) {
+			return condition.getTeamName();
+		}
+		if (constant == AGE_GOE) {
+			return condition.getAgeGoe();
+		}
+		if (constant == AGE_LOE) {
+			return condition.getAgeLoe();
+		}
+		return constant;
+	}
+
+	// 리포지토리 search() 의 usernameEq, teamNameEq, ageGoe, ageLoe 와 같은 식
+	private static JPAQuery<MemberTeamDto> queryOf(int shape) {
+		return new JPAQuery<Void>()
+			.select(PROJECTION)
+			.from(member)
+			.leftJoin(member.team, team)
+			.where(
+				(shape & MemberSearchShape.USERNAME) != 0 ? member.username.eq(USERNAME) : null,
+				(shape & MemberSearchShape.TEAM_NAME) != 0 ? team.name.eq(TEAM_NAME) : null,
+				(shape & MemberSearchShape.AGE_GOE) != 0 ? member.age.goe(AGE_GOE) : null,
+				(shape & MemberSearchShape.AGE_LOE) != 0 ? member.age.loe(AGE_LOE) : null
+			);
+	}
+}
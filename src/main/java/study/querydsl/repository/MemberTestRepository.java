@@ -3,8 +3,12 @@ package study.querydsl.repository;
 import static org.springframework.util.StringUtils.*;
 import static study.querydsl.entity.QMember.*;
 import static study.querydsl.entity.QTeam.*;
+import static study.querydsl.repository.support.InListChunker.*;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -16,15 +20,24 @@ import com.querydsl.jpa.JPQLQuery;
 import com.querydsl.jpa.impl.JPAQuery;
 
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.UsernameMatch;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.QTeam;
+import study.querydsl.repository.support.InListChunker;
 import study.querydsl.repository.support.Querydsl4RepositorySupport;
+import study.querydsl.repository.support.UsernameIndex;
 
 @Repository
 public class MemberTestRepository extends Querydsl4RepositorySupport {
-	public MemberTestRepository() {
+
+	private final UsernameIndex usernameIndex;
+	private final InListChunker inListChunker;
+
+	public MemberTestRepository(UsernameIndex usernameIndex, InListChunker inListChunker) {
 		super(Member.class);
+		this.usernameIndex = usernameIndex;
+		this.inListChunker = inListChunker;
 	}
 
 	public List<Member> basicSelect() {
@@ -39,48 +52,94 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
 	}
 
 	public Page<Member> searchPageByApplyPage(MemberSearchCondition condition, Pageable pageable) {
+		return searchPageByApplyPage(condition, pageable, MemberFetchPlan.NONE);
+	}
+
+	/**
+	 * 페이징 + team 로딩
+	 * - 1단계: 조건에 맞는 회원 id 만 페이징 조회
+	 * - 2단계: id in 으로 회원을 fetchPlan 에 따라 조회하고 1단계 순서로 정렬
+	 * 페치 조인에 직접 페이징을 걸지 않으므로 컬렉션 페치 조인이 추가되어도 메모리 페이징(HHH000104)이 발생하지 않음
+	 */
+	public Page<Member> searchPageByApplyPage(MemberSearchCondition condition, Pageable pageable,
+		MemberFetchPlan fetchPlan) {
+		requireSingleChunk(condition);
 		JPAQuery<Member> query = selectFrom(member)
 			.leftJoin(member.team, team)
-			.where(usernameEq(condition.getUsername()),
+			.where(usernameMatches(condition.getUsername(), condition.getUsernameMatch()),
 				teamNameEq(condition.getTeamName()),
 				ageGoe(condition.getAgeGoe()),
-				ageLoe(condition.getAgeLoe()));
-
-		List<Member> content = getQuerydsl().applyPagination(pageable, query).fetch();
-		return PageableExecutionUtils.getPage(content, pageable, query::fetchCount);
+				ageLoe(condition.getAgeLoe()),
+				inListsOf(condition));
+
+		if (fetchPlan == MemberFetchPlan.NONE) {
+			List<Member> content = getQuerydsl().applyPagination(pageable, query).fetch();
+			return PageableExecutionUtils.getPage(content, pageable, query::fetchCount);
+		}
+
+		List<Long> ids = getQuerydsl().applyPagination(pageable, query.clone().select(member.id)).fetch();
+		List<Member> content = ids.isEmpty() ? new ArrayList<>() : fetchPlan.afterLoad(
+			fetchPlan.apply(selectFrom(member).leftJoin(member.team, team), getEntityManager())
+				.where(member.id.in(ids))
+				.fetch(), getEntityManager());
+
+		Map<Long, Member> byId = new HashMap<>();
+		content.forEach(m -> byId.put(m.getId(), m));
+		List<Member> ordered = new ArrayList<>(ids.size());
+		// 두 조회 사이에 삭제된 회원은 건너뜀
+		for (Long id : ids) {
+			Member found = byId.get(id);
+			if (found != null) {
+				ordered.add(found);
+			}
+		}
+		return PageableExecutionUtils.getPage(ordered, pageable, query::fetchCount);
 	}
 
 	public Page<Member> applyPagination(MemberSearchCondition condition, Pageable pageable) {
+		requireSingleChunk(condition);
 		return applyPagination(pageable, query -> query
 			.selectFrom(member)
 			.leftJoin(member.team, team)
-			.where(usernameEq(condition.getUsername()),
+			.where(usernameMatches(condition.getUsername(), condition.getUsernameMatch()),
 				teamNameEq(condition.getTeamName()),
 				ageGoe(condition.getAgeGoe()),
-				ageLoe(condition.getAgeLoe())));
+				ageLoe(condition.getAgeLoe()),
+				inListsOf(condition)));
 	}
 
 	public Page<Member> applyPagination2(MemberSearchCondition condition, Pageable pageable) {
+		requireSingleChunk(condition);
 		return applyPagination(pageable, contentQuery -> contentQuery
 			.selectFrom(member)
 			.leftJoin(member.team, team)
-			.where(usernameEq(condition.getUsername()),
+			.where(usernameMatches(condition.getUsername(), condition.getUsernameMatch()),
 				teamNameEq(condition.getTeamName()),
 				ageGoe(condition.getAgeGoe()),
-				ageLoe(condition.getAgeLoe())
+				ageLoe(condition.getAgeLoe()),
+				inListsOf(condition)
 
 			), countQuery -> countQuery
 			.select(member.id)
 			.from(member)
 			.leftJoin(member.team, team)
-			.where(usernameEq(condition.getUsername()),
+			.where(usernameMatches(condition.getUsername(), condition.getUsernameMatch()),
 				teamNameEq(condition.getTeamName()),
 				ageGoe(condition.getAgeGoe()),
-				ageLoe(condition.getAgeLoe())));
+				ageLoe(condition.getAgeLoe()),
+				inListsOf(condition)));
+	}
+
+	// 엔티티 페이징은 나눈 조건의 결과를 합치지 않으므로 in 목록이 chunk-size 를 넘으면 거부
+	private void requireSingleChunk(MemberSearchCondition condition) {
+		if (inListChunker.split(condition).size() > 1) {
+			throw new IllegalArgumentException(
+				"IN-list filters exceed querydsl.in-list.chunk-size=" + inListChunker.getChunkSize());
+		}
 	}
 
-	private BooleanExpression usernameEq(String username) {
-		return hasText(username) ? member.username.eq(username) : null;
+	private BooleanExpression usernameMatches(String username, UsernameMatch usernameMatch) {
+		return usernameIndex.predicate(username, usernameMatch);
 	}
 
 	private BooleanExpression teamNameEq(String teamName) {
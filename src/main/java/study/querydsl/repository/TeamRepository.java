@@ -0,0 +1,23 @@
+package study.querydsl.repository;
+
+import java.util.List;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import study.querydsl.entity.Team;
+
+public interface TeamRepository extends JpaRepository<Team, Long> {
+
+	// 팀명 -> id 조회는 쿼리 캐시 사용 (team 테이블이 바뀌면 하이버네이트가 무효화)
+	@QueryHints({
+		@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+		@QueryHint(name = "org.hibernate.cacheRegion", value = Team.NAME_QUERY_REGION)
+	})
+	@Query("select t.id from Team t where t.name = :name")
+	List<Long> findIdsByName(@Param("name") String name);
+}
@@ -0,0 +1,33 @@
+package study.querydsl.repository.support;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+import lombok.Getter;
+
+/**
+ * 청크 단위 벌크 연산 옵션
+ * - chunkSize: 한 트랜잭션에서 처리할 행 수 (조건에 맞는 id 기준)
+ * - pause: 청크 사이 대기 시간 (락, 복제 지연 완화)
+ * - listener: 청크마다 진행 상황 통지
+ */
+@Getter
+public class BulkOptions {
+
+	private final int chunkSize;
+	private final Duration pause;
+	private final Consumer<BulkProgress> listener;
+
+	public BulkOptions(int chunkSize, Duration pause, Consumer<BulkProgress> listener) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("chunkSize must be positive");
+		}
+		this.chunkSize = chunkSize;
+		this.pause = pause == null ? Duration.ZERO : pause;
+		this.listener = listener == null ? progress -> { } : listener;
+	}
+
+	public static BulkOptions of(int chunkSize) {
+		return new BulkOptions(chunkSize, Duration.ZERO, null);
+	}
+}
@@ -0,0 +1,38 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 청크 단위 벌크 연산 진행 상황 (불변)
+ * totalChunks 는 시작할 때 조건에 맞는 행 수로 추정한 값
+ */
+@Getter
+@ToString
+public class BulkProgress {
+
+	private final long completedChunks;
+	private final long totalChunks;
+	private final long affectedRows;
+	private final Long lastId;
+
+	public BulkProgress(long completedChunks, long totalChunks, long affectedRows, Long lastId) {
+		this.completedChunks = completedChunks;
+		this.totalChunks = totalChunks;
+		this.affectedRows = affectedRows;
+		this.lastId = lastId;
+	}
+
+	public BulkProgress next(long rows, long toId) {
+		return new BulkProgress(completedChunks + 1, totalChunks, affectedRows + rows, toId);
+	}
+
+	// 남은 청크가 없음 (totalChunks 는 시작할 때의 추정치이므로 실제 처리한 청크 수로 맞춤)
+	public BulkProgress finish() {
+		return new BulkProgress(completedChunks, completedChunks, affectedRows, lastId);
+	}
+
+	public boolean isDone() {
+		return completedChunks >= totalChunks;
+	}
+}
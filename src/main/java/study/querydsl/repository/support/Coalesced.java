@@ -0,0 +1,15 @@
+package study.querydsl.repository.support;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 같은 인자로 동시에 들어온 호출은 먼저 들어온 호출의 결과를 같이 사용 (SingleFlight)
+ * 결과 객체를 호출자끼리 공유하므로 읽기 전용 조회에만 사용
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Coalesced {
+}
@@ -0,0 +1,77 @@
+package study.querydsl.repository.support;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.jpa.impl.JPAQuery;
+
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.AfterCompletion;
+import study.querydsl.event.EntityChangeEvent;
+
+/**
+ * 페이징 total count 캐시
+ * - 같은 검색 조건으로 여러 페이지를 넘겨볼 때 count 쿼리를 반복하지 않음
+ * - TTL, 최대 개수로 만료 / Member, Team 쓰기 시 전체 무효화
+ */
+@Component
+public class CountCache {
+
+	private final boolean enabled;
+	private final Cache<Object, Long> cache;
+
+	public CountCache(@Value("${querydsl.pagination.count-cache.enabled:true}") boolean enabled,
+		@Value("${querydsl.pagination.count-cache.ttl:30s}") Duration ttl,
+		@Value("${querydsl.pagination.count-cache.max-size:10000}") long maxSize) {
+		this.enabled = enabled;
+		this.cache = Caffeine.newBuilder()
+			.expireAfterWrite(ttl)
+			.maximumSize(maxSize)
+			.recordStats()
+			.build();
+	}
+
+	public LongSupplier cached(Object key, LongSupplier count) {
+		if (!enabled) {
+			return count;
+		}
+		return () -> cache.get(key, k -> count.getAsLong());
+	}
+
+	/**
+	 * 쿼리의 join, where 로 캐시 키를 만듦 (페이징, 정렬 적용 전에 호출)
+	 */
+	public static Object keyOf(JPAQuery<?> query) {
+		QueryMetadata metadata = query.getMetadata();
+		return Arrays.asList(metadata.getJoins().toString(), String.valueOf(metadata.getWhere()),
+			metadata.getGroupBy().toString(), String.valueOf(metadata.getHaving()), metadata.isDistinct());
+	}
+
+	@EventListener
+	public void onEntityChange(EntityChangeEvent event) {
+		if (!event.isFor(Member.class) && !event.isFor(Team.class)) {
+			return;
+		}
+		cache.invalidateAll();
+		// 커밋(또는 롤백) 이후 다른 트랜잭션이 보는 값이 바뀌므로 완료 시점에 한번 더 비움
+		AfterCompletion.runOnce(this, cache::invalidateAll);
+	}
+
+	public CacheStats stats() {
+		return cache.stats();
+	}
+
+	public long size() {
+		return cache.estimatedSize();
+	}
+}
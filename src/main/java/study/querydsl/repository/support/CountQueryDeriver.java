@@ -0,0 +1,192 @@
+package study.querydsl.repository.support;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+import javax.persistence.EntityManager;
+
+import com.querydsl.core.DefaultQueryMetadata;
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.JoinFlag;
+import com.querydsl.core.JoinType;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.CollectionExpression;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.MapExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.Visitor;
+import com.querydsl.jpa.JPQLQueryMixin;
+import com.querydsl.jpa.impl.JPAQuery;
+
+/**
+ * 컨텐츠 쿼리로부터 count 쿼리를 유도
+ * - projection, order by, offset/limit 제거
+ * - where 절에서 참조하지 않는 to-one left join 제거
+ * - group by, having, distinct 가 있으면 기존 fetchCount 로 대체
+ */
+public final class CountQueryDeriver {
+
+	private CountQueryDeriver() {
+	}
+
+	/**
+	 * 페이징을 적용하기 전에 호출해야 함 (applyPagination 이 컨텐츠 쿼리를 변경하기 때문)
+	 */
+	public static LongSupplier countOf(EntityManager entityManager, JPAQuery<?> contentQuery) {
+		QueryMetadata source = contentQuery.getMetadata();
+		if (!source.getGroupBy().isEmpty() || source.getHaving() != null || source.isDistinct()) {
+			JPAQuery<?> snapshot = contentQuery.clone(entityManager);
+			return snapshot::fetchCount;
+		}
+		JPAQuery<Long> countQuery = derive(entityManager, source);
+		return () -> countQuery.fetchOne();
+	}
+
+	static JPAQuery<Long> derive(EntityManager entityManager, QueryMetadata source) {
+		List<JoinExpression> joins = source.getJoins();
+
+		// 뒤에서부터 보면서 참조되는 join 만 남김 (남긴 join 이 참조하는 alias 도 참조로 취급)
+		Set<Path<?>> referenced = new HashSet<>();
+		collectRoots(source.getWhere(), referenced);
+		boolean[] keep = new boolean[joins.size()];
+		for (int i = joins.size() - 1; i >= 0; i--) {
+			JoinExpression join = joins.get(i);
+			if (isPrunable(join) && !referenced.contains(aliasOf(join))) {
+				continue;
+			}
+			keep[i] = true;
+			collectRoots(join.getTarget(), referenced);
+			collectRoots(join.getCondition(), referenced);
+		}
+
+		QueryMetadata metadata = new DefaultQueryMetadata();
+		for (int i = 0; i < joins.size(); i++) {
+			if (!keep[i]) {
+				continue;
+			}
+			JoinExpression join = joins.get(i);
+			metadata.addJoin(join.getType(), join.getTarget());
+			if (join.getCondition() != null) {
+				metadata.addJoinCondition(join.getCondition());
+			}
+			for (JoinFlag flag : join.getFlags()) {
+				// fetch join 은 count 쿼리에서 사용할 수 없음
+				if (!JPQLQueryMixin.FETCH.equals(flag) && !JPQLQueryMixin.FETCH_ALL_PROPERTIES.equals(flag)) {
+					metadata.addJoinFlag(flag);
+				}
+			}
+		}
+		if (source.getWhere() != null) {
+			metadata.addWhere(source.getWhere());
+		}
+
+		Expression<?> root = aliasOf(joins.get(0));
+		return new JPAQuery<Void>(entityManager, metadata).select(ExpressionUtils.count(root));
+	}
+
+	// to-one 연관관계 left join 은 row 수를 바꾸지 않으므로 제거 가능
+	private static boolean isPrunable(JoinExpression join) {
+		if (join.getType() != JoinType.LEFTJOIN) {
+			return false;
+		}
+		Expression<?> association = associationOf(join);
+		if (!(association instanceof Path)) {
+			return false;
+		}
+		Path<?> path = (Path<?>)association;
+		return path.getMetadata().getParent() != null
+			&& !(path instanceof CollectionExpression)
+			&& !(path instanceof MapExpression);
+	}
+
+	private static Expression<?> associationOf(JoinExpression join) {
+		Expression<?> target = join.getTarget();
+		if (target instanceof Operation && ((Operation<?>)target).getOperator() == Ops.ALIAS) {
+			return ((Operation<?>)target).getArg(0);
+		}
+		return target;
+	}
+
+	private static Expression<?> aliasOf(JoinExpression join) {
+		Expression<?> target = join.getTarget();
+		if (target instanceof Operation && ((Operation<?>)target).getOperator() == Ops.ALIAS) {
+			return ((Operation<?>)target).getArg(1);
+		}
+		return target;
+	}
+
+	private static void collectRoots(Expression<?> expr, Set<Path<?>> roots) {
+		if (expr != null) {
+			expr.accept(RootCollector.INSTANCE, roots);
+		}
+	}
+
+	private enum RootCollector implements Visitor<Void, Set<Path<?>>> {
+		INSTANCE;
+
+		@Override
+		public Void visit(Constant<?> expr, Set<Path<?>> context) {
+			return null;
+		}
+
+		@Override
+		public Void visit(FactoryExpression<?> expr, Set<Path<?>> context) {
+			for (Expression<?> arg : expr.getArgs()) {
+				arg.accept(this, context);
+			}
+			return null;
+		}
+
+		@Override
+		public Void visit(Operation<?> expr, Set<Path<?>> context) {
+			for (Expression<?> arg : expr.getArgs()) {
+				arg.accept(this, context);
+			}
+			return null;
+		}
+
+		@Override
+		public Void visit(ParamExpression<?> expr, Set<Path<?>> context) {
+			return null;
+		}
+
+		@Override
+		public Void visit(Path<?> expr, Set<Path<?>> context) {
+			context.add(expr.getRoot());
+			return null;
+		}
+
+		@Override
+		public Void visit(SubQueryExpression<?> expr, Set<Path<?>> context) {
+			QueryMetadata metadata = expr.getMetadata();
+			for (JoinExpression join : metadata.getJoins()) {
+				collectRoots(join.getTarget(), context);
+				collectRoots(join.getCondition(), context);
+			}
+			collectRoots(metadata.getWhere(), context);
+			collectRoots(metadata.getHaving(), context);
+			collectRoots(metadata.getProjection(), context);
+			return null;
+		}
+
+		@Override
+		public Void visit(TemplateExpression<?> expr, Set<Path<?>> context) {
+			for (Object arg : expr.getArgs()) {
+				if (arg instanceof Expression) {
+					((Expression<?>)arg).accept(this, context);
+				}
+			}
+			return null;
+		}
+	}
+}
@@ -0,0 +1,317 @@
+package study.querydsl.repository.support;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionException;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Visitor;
+
+/**
+ * Projections.bean / fields / constructor 대체
+ * - DTO 클래스 + alias(또는 인자 타입) 조합별로 생성자, setter, 필드 접근자를 한번만 만들어 캐시
+ * - setter, 기본 생성자는 LambdaMetafactory 로 만든 람다, 필드와 인자 생성자는 MethodHandle 사용 -> 행마다 리플렉션 없음
+ * - 사용법, alias 규칙, null 처리는 Projections 와 같음 (bean/fields 는 null 이 아닌 값만 설정)
+ */
+public final class FastProjections {
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+	private static final Map<List<Object>, Instantiator> PLANS = new ConcurrentHashMap<>();
+
+	private enum Style {
+		BEAN, FIELDS, CONSTRUCTOR
+	}
+
+	private FastProjections() {
+	}
+
+	public static <T> FactoryExpressionBase<T> bean(Class<? extends T> type, Expression<?>... exprs) {
+		return aliased(Style.BEAN, type, exprs);
+	}
+
+	public static <T> FactoryExpressionBase<T> fields(Class<? extends T> type, Expression<?>... exprs) {
+		return aliased(Style.FIELDS, type, exprs);
+	}
+
+	public static <T> FactoryExpressionBase<T> constructor(Class<? extends T> type, Expression<?>... exprs) {
+		List<Expression<?>> args = Arrays.asList(exprs);
+		List<Class<?>> argTypes = new ArrayList<>(exprs.length);
+		for (Expression<?> expr : exprs) {
+			argTypes.add(expr.getType());
+		}
+		Instantiator instantiator = PLANS.computeIfAbsent(Arrays.asList(Style.CONSTRUCTOR, type, argTypes),
+			key -> constructorPlan(type, argTypes));
+		return new AccessorProjection<>(type, Style.CONSTRUCTOR, args, instantiator);
+	}
+
+	// Projections.bean 과 같이 Path 는 이름, as(alias) 는 alias 로 매핑하고 alias 는 벗겨서 조회
+	private static <T> FactoryExpressionBase<T> aliased(Style style, Class<? extends T> type, Expression<?>[] exprs) {
+		List<Expression<?>> args = new ArrayList<>(exprs.length);
+		List<String> names = new ArrayList<>(exprs.length);
+		for (Expression<?> expr : exprs) {
+			if (expr instanceof Operation && ((Operation<?>)expr).getOperator() == Ops.ALIAS) {
+				Operation<?> alias = (Operation<?>)expr;
+				args.add(alias.getArg(0));
+				names.add(((Path<?>)alias.getArg(1)).getMetadata().getName());
+			} else if (expr instanceof Path) {
+				args.add(expr);
+				names.add(((Path<?>)expr).getMetadata().getName());
+			} else {
+				throw new IllegalArgumentException("Unsupported expression " + expr + ", use as(alias)");
+			}
+		}
+		Instantiator instantiator = PLANS.computeIfAbsent(Arrays.asList(style, type, names),
+			key -> style == Style.BEAN ? beanPlan(type, names) : fieldsPlan(type, names));
+		return new AccessorProjection<>(type, style, Collections.unmodifiableList(args), instantiator);
+	}
+
+	@FunctionalInterface
+	private interface Instantiator {
+		Object newInstance(Object[] args) throws Throwable;
+	}
+
+	private static Instantiator beanPlan(Class<?> type, List<String> names) {
+		Supplier<Object> factory = defaultConstructor(type);
+		@SuppressWarnings("unchecked")
+		BiConsumer<Object, Object>[] setters = new BiConsumer[names.size()];
+		for (int i = 0; i < setters.length; i++) {
+			Method setter = findSetter(type, names.get(i));
+			setters[i] = setter != null ? setterLambda(type, setter) : null;
+		}
+		return args -> {
+			Object bean = factory.get();
+			for (int i = 0; i < setters.length; i++) {
+				if (args[i] != null && setters[i] != null) {
+					setters[i].accept(bean, args[i]);
+				}
+			}
+			return bean;
+		};
+	}
+
+	private static Instantiator fieldsPlan(Class<?> type, List<String> names) {
+		Supplier<Object> factory = defaultConstructor(type);
+		MethodHandle[] setters = new MethodHandle[names.size()];
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, LOOKUP);
+			for (int i = 0; i < setters.length; i++) {
+				Field field = findField(type, names.get(i));
+				if (field != null) {
+					setters[i] = lookup.unreflectSetter(field)
+						.asType(MethodType.methodType(void.class, Object.class, Object.class));
+				}
+			}
+		} catch (IllegalAccessException e) {
+			throw new ExpressionException(e.getMessage(), e);
+		}
+		return args -> {
+			Object bean = factory.get();
+			for (int i = 0; i < setters.length; i++) {
+				if (args[i] != null && setters[i] != null) {
+					setters[i].invokeExact(bean, args[i]);
+				}
+			}
+			return bean;
+		};
+	}
+
+	private static Instantiator constructorPlan(Class<?> type, List<Class<?>> argTypes) {
+		Constructor<?> constructor = findConstructor(type, argTypes);
+		Class<?>[] paramTypes = constructor.getParameterTypes();
+		MethodHandle handle;
+		try {
+			handle = MethodHandles.privateLookupIn(type, LOOKUP).unreflectConstructor(constructor)
+				.asSpreader(Object[].class, paramTypes.length)
+				.asType(MethodType.methodType(Object.class, Object[].class));
+		} catch (IllegalAccessException e) {
+			throw new ExpressionException(e.getMessage(), e);
+		}
+		// 기본 타입 파라미터에 null 이 오면 기본값으로 (Projections.constructor 와 동일)
+		Object[] defaults = new Object[paramTypes.length];
+		boolean hasPrimitive = false;
+		for (int i = 0; i < paramTypes.length; i++) {
+			if (paramTypes[i].isPrimitive()) {
+				defaults[i] = Array.get(Array.newInstance(paramTypes[i], 1), 0);
+				hasPrimitive = true;
+			}
+		}
+		if (!hasPrimitive) {
+			return args -> handle.invokeExact(args);
+		}
+		return args -> {
+			for (int i = 0; i < args.length; i++) {
+				if (args[i] == null) {
+					args[i] = defaults[i];
+				}
+			}
+			return handle.invokeExact(args);
+		};
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Supplier<Object> defaultConstructor(Class<?> type) {
+		try {
+			Constructor<?> constructor = type.getDeclaredConstructor();
+			MethodHandle handle = MethodHandles.privateLookupIn(type, LOOKUP).unreflectConstructor(constructor);
+			if (Modifier.isPublic(type.getModifiers()) && Modifier.isPublic(constructor.getModifiers())) {
+				CallSite site = LambdaMetafactory.metafactory(LOOKUP, "get", MethodType.methodType(Supplier.class),
+					MethodType.methodType(Object.class), handle, MethodType.methodType(type));
+				return (Supplier<Object>)site.getTarget().invokeExact();
+			}
+			MethodHandle generic = handle.asType(MethodType.methodType(Object.class));
+			return () -> invoke(generic);
+		} catch (NoSuchMethodException e) {
+			throw new ExpressionException(type.getName() + " has no default constructor", e);
+		} catch (Throwable e) {
+			throw new ExpressionException(e.getMessage(), e);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static BiConsumer<Object, Object> setterLambda(Class<?> type, Method setter) {
+		try {
+			MethodHandle handle = LOOKUP.unreflect(setter);
+			if (Modifier.isPublic(type.getModifiers()) && setter.getReturnType() == void.class) {
+				Class<?> valueType = ClassUtils.resolvePrimitiveIfNecessary(setter.getParameterTypes()[0]);
+				CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept",
+					MethodType.methodType(BiConsumer.class), MethodType.methodType(void.class, Object.class, Object.class),
+					handle, MethodType.methodType(void.class, type, valueType));
+				return (BiConsumer<Object, Object>)site.getTarget().invokeExact();
+			}
+			MethodHandle generic = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+			return (bean, value) -> invoke(generic, bean, value);
+		} catch (Throwable e) {
+			throw new ExpressionException(e.getMessage(), e);
+		}
+	}
+
+	private static Object invoke(MethodHandle handle) {
+		try {
+			return handle.invokeExact();
+		} catch (Throwable e) {
+			throw new ExpressionException(e.getMessage(), e);
+		}
+	}
+
+	private static void invoke(MethodHandle handle, Object bean, Object value) {
+		try {
+			handle.invokeExact(bean, value);
+		} catch (Throwable e) {
+			throw new ExpressionException(e.getMessage(), e);
+		}
+	}
+
+	// 이름이 맞지 않으면 Projections.bean 과 같이 무시
+	private static Method findSetter(Class<?> type, String name) {
+		String setterName = "set" + StringUtils.capitalize(name);
+		for (Method method : type.getMethods()) {
+			if (method.getName().equals(setterName) && method.getParameterCount() == 1) {
+				return method;
+			}
+		}
+		return null;
+	}
+
+	private static Field findField(Class<?> type, String name) {
+		for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+			try {
+				return current.getDeclaredField(name);
+			} catch (NoSuchFieldException e) {
+				// 상위 클래스에서 찾음
+			}
+		}
+		return null;
+	}
+
+	private static Constructor<?> findConstructor(Class<?> type, List<Class<?>> argTypes) {
+		for (Constructor<?> constructor : type.getConstructors()) {
+			Class<?>[] paramTypes = constructor.getParameterTypes();
+			if (paramTypes.length != argTypes.size()) {
+				continue;
+			}
+			boolean matches = true;
+			for (int i = 0; i < paramTypes.length && matches; i++) {
+				matches = ClassUtils.resolvePrimitiveIfNecessary(paramTypes[i]).isAssignableFrom(
+					ClassUtils.resolvePrimitiveIfNecessary(argTypes.get(i)));
+			}
+			if (matches) {
+				return constructor;
+			}
+		}
+		throw new ExpressionException("No constructor found for " + type.getName() + " with parameters " + argTypes);
+	}
+
+	private static final class AccessorProjection<T> extends FactoryExpressionBase<T> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Style style;
+		private final List<Expression<?>> args;
+		private final transient Instantiator instantiator;
+
+		private AccessorProjection(Class<? extends T> type, Style style, List<Expression<?>> args,
+			Instantiator instantiator) {
+			super(type);
+			this.style = style;
+			this.args = args;
+			this.instantiator = instantiator;
+		}
+
+		@Override
+		public List<Expression<?>> getArgs() {
+			return args;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public T newInstance(Object... values) {
+			try {
+				return (T)instantiator.newInstance(values);
+			} catch (RuntimeException e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new ExpressionException(e.getMessage(), e);
+			}
+		}
+
+		@Override
+		public <R, C> R accept(Visitor<R, C> v, C context) {
+			return v.visit(this, context);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) {
+				return true;
+			}
+			if (!(obj instanceof AccessorProjection)) {
+				return false;
+			}
+			AccessorProjection<?> other = (AccessorProjection<?>)obj;
+			return getType().equals(other.getType()) && style == other.style && args.equals(other.args);
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package study.querydsl.repository.support;
+
+import static study.querydsl.entity.QMember.*;
+import static study.querydsl.entity.QTeam.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+
+import study.querydsl.dto.MemberSearchCondition;
+
+/**
+ * 여러 값 조건(usernames, teamNames, teamIds) 의 in 목록 나누기
+ * - in 목록이 chunk-size 를 넘으면 chunk-size 씩 나눈 조건 여러개로 실행하고 결과를 합침 (DB 파라미터 수 제한)
+ * - 나눈 조건끼리 결과가 겹치지 않음 (회원은 username, 팀이 하나) -> 목록은 이어 붙이고 count 는 더함
+ * - 목록 길이마다 쿼리 플랜이 생기지 않도록 하는 것은 hibernate.query.in_clause_parameter_padding (2의 제곱으로 채움)
+ * - 리포지토리들이 같이 쓰는 in 조건(inListsOf)도 여기서 만듦
+ */
+@Component
+public class InListChunker {
+
+	private final int chunkSize;
+
+	public InListChunker(@Value("${querydsl.in-list.chunk-size:1000}") int chunkSize) {
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * 나눌 필요가 없으면 condition 하나만 담은 목록
+	 */
+	public List<MemberSearchCondition> split(MemberSearchCondition condition) {
+		if (!condition.hasMultiValueFilters()) {
+			return Collections.singletonList(condition);
+		}
+		// 같은 값이 두 조각에 들어가면 결과가 중복되므로 중복을 제거한 사본으로 나눔
+		List<MemberSearchCondition> conditions = Collections.singletonList(condition.normalize());
+		conditions = splitBy(conditions, MemberSearchCondition::getUsernames, MemberSearchCondition::setUsernames);
+		conditions = splitBy(conditions, MemberSearchCondition::getTeamNames, MemberSearchCondition::setTeamNames);
+		conditions = splitBy(conditions, MemberSearchCondition::getTeamIds, MemberSearchCondition::setTeamIds);
+		return conditions.size() == 1 ? Collections.singletonList(condition) : conditions;
+	}
+
+	/**
+	 * 나눈 조건마다 search 를 실행해서 결과를 이어 붙임 (나눌 필요가 없으면 search 한번)
+	 * 나눈 조건끼리 결과가 겹치지 않으므로 중복 제거 없이 합침
+	 */
+	public <T> List<T> searchEach(MemberSearchCondition condition, Function<MemberSearchCondition, List<T>> search) {
+		List<MemberSearchCondition> chunks = split(condition);
+		if (chunks.size() == 1) {
+			return search.apply(chunks.get(0));
+		}
+		List<T> result = new ArrayList<>();
+		chunks.forEach(chunk -> result.addAll(search.apply(chunk)));
+		return result;
+	}
+
+	/**
+	 * searchEach 와 같고, 나눴을 때는 합친 결과를 order 순으로 정렬 (조건별 결과가 order 순일 때 전체도 order 순)
+	 */
+	public <T> List<T> searchEach(MemberSearchCondition condition, Function<MemberSearchCondition, List<T>> search,
+		Comparator<? super T> order) {
+		List<MemberSearchCondition> chunks = split(condition);
+		if (chunks.size() == 1) {
+			return search.apply(chunks.get(0));
+		}
+		List<T> result = searchEach(condition, search);
+		result.sort(order);
+		return result;
+	}
+
+	/**
+	 * 여러 값 조건의 in 조건 (usernames, teamNames, teamIds), 없으면 null
+	 * teamNames 는 team 별칭으로 비교하므로 leftJoin(member.team, team) 한 쿼리에서 사용
+	 */
+	public static BooleanExpression inListsOf(MemberSearchCondition condition) {
+		BooleanExpression usernamesIn = isEmpty(condition.getUsernames()) ? null
+			: member.username.in(condition.getUsernames());
+		BooleanExpression teamNamesIn = isEmpty(condition.getTeamNames()) ? null
+			: team.name.in(condition.getTeamNames());
+		BooleanExpression teamIdsIn = isEmpty(condition.getTeamIds()) ? null
+			: member.team.id.in(condition.getTeamIds());
+		return and(and(usernamesIn, teamNamesIn), teamIdsIn);
+	}
+
+	private static boolean isEmpty(List<?> values) {
+		return values == null || values.isEmpty();
+	}
+
+	private static BooleanExpression and(BooleanExpression left, BooleanExpression right) {
+		if (left == null) {
+			return right;
+		}
+		return right == null ? left : left.and(right);
+	}
+
+	private <T> List<MemberSearchCondition> splitBy(List<MemberSearchCondition> conditions,
+		Function<MemberSearchCondition, List<T>> getter, BiConsumer<MemberSearchCondition, List<T>> setter) {
+		List<MemberSearchCondition> result = new ArrayList<>();
+		for (MemberSearchCondition condition : conditions) {
+			List<T> values = getter.apply(condition);
+			if (values == null || values.size() <= chunkSize) {
+				result.add(condition);
+				continue;
+			}
+			for (int from = 0; from < values.size(); from += chunkSize) {
+				// normalize 는 사본
+				MemberSearchCondition chunk = condition.normalize();
+				setter.accept(chunk, new ArrayList<>(values.subList(from, Math.min(from + chunkSize, values.size()))));
+				result.add(chunk);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 나눈 조건별로 order 순으로 (offset + limit) 건씩 읽은 결과를 합쳐서 offset 부터 limit 건
+	 */
+	public static <T> List<T> merge(List<List<T>> chunks, Comparator<? super T> order, long offset, int limit) {
+		List<T> merged = new ArrayList<>();
+		chunks.forEach(merged::addAll);
+		merged.sort(order);
+		if (offset >= merged.size()) {
+			return new ArrayList<>();
+		}
+		return new ArrayList<>(merged.subList((int)offset, (int)Math.min(merged.size(), offset + limit)));
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+}
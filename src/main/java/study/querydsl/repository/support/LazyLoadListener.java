@@ -0,0 +1,70 @@
+package study.querydsl.repository.support;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 지연 로딩(프록시, 컬렉션 초기화)된 연관관계 이름을 현재 StatementBudget 에 기록
+ * - 프록시 초기화는 엔티티 이름만 알 수 있으므로 그 엔티티를 가리키는 to-one 연관관계 이름으로 표시 (Team -> Member.team)
+ * - SQL 보다 먼저 기록되도록 하이버네이트 기본 리스너 앞에 등록
+ */
+@Component
+public class LazyLoadListener implements LoadEventListener, InitializeCollectionEventListener {
+
+	private final SessionFactoryImplementor sessionFactory;
+	private final Map<String, String> toOneAssociations = new HashMap<>();
+
+	public LazyLoadListener(EntityManagerFactory emf) {
+		this.sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+	}
+
+	@PostConstruct
+	public void register() {
+		Map<String, StringJoiner> associations = new HashMap<>();
+		for (EntityType<?> entity : sessionFactory.getMetamodel().getEntities()) {
+			for (Attribute<?, ?> attribute : entity.getAttributes()) {
+				if (attribute.isAssociation() && !attribute.isCollection()) {
+					associations.computeIfAbsent(attribute.getJavaType().getName(), k -> new StringJoiner("|"))
+						.add(entity.getName() + "." + attribute.getName());
+				}
+			}
+		}
+		associations.forEach((entityName, names) -> toOneAssociations.put(entityName, names.toString()));
+
+		EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+		registry.prependListeners(EventType.LOAD, this);
+		registry.prependListeners(EventType.INIT_COLLECTION, this);
+	}
+
+	@Override
+	public void onLoad(LoadEvent event, LoadType loadType) throws HibernateException {
+		if (loadType == LoadEventListener.IMMEDIATE_LOAD) {
+			StatementBudget.lazyLoaded(toOneAssociations.getOrDefault(event.getEntityClassName(),
+				event.getEntityClassName()));
+		}
+	}
+
+	@Override
+	public void onInitializeCollection(InitializeCollectionEvent event) throws HibernateException {
+		// study.querydsl.entity.Team.members -> Team.members
+		String role = event.getCollection().getRole();
+		String owner = role.substring(0, role.lastIndexOf('.'));
+		StatementBudget.lazyLoaded(owner.substring(owner.lastIndexOf('.') + 1) + role.substring(role.lastIndexOf('.')));
+	}
+}
@@ -0,0 +1,78 @@
+package study.querydsl.repository.support;
+
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import study.querydsl.entity.Member;
+
+/**
+ * Member 커밋 이후(하이버네이트 post-commit 이벤트) 메모리 구조를 갱신하는 컴포넌트 공통 부분
+ * (UsernameIndex, MemberSnapshot, TeamStatisticsService)
+ * - post-commit insert/update/delete 리스너 등록 (isEnabled 일 때만), 커밋 실패 이벤트는 무시
+ * - 다시 만들 때 커밋된 데이터만 읽는 트랜잭션 (readCommitted)
+ */
+public abstract class MemberCommitListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+	PostCommitDeleteEventListener {
+
+	private final SessionFactoryImplementor sessionFactory;
+	private final TransactionTemplate transactionTemplate;
+
+	protected MemberCommitListener(EntityManagerFactory emf, PlatformTransactionManager transactionManager) {
+		this.sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+		// 호출한 쪽 트랜잭션의 커밋되지 않은 행을 읽지 않도록 항상 새 트랜잭션, replica 지연을 피하려고 readOnly 아님
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	protected boolean isEnabled() {
+		return true;
+	}
+
+	@PostConstruct
+	public void register() {
+		if (!isEnabled()) {
+			return;
+		}
+		EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+		registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+		registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+		registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+	}
+
+	protected <T> T readCommitted(Supplier<T> read) {
+		return transactionTemplate.execute(status -> read.get());
+	}
+
+	@Override
+	public void onPostInsertCommitFailed(PostInsertEvent event) {
+	}
+
+	@Override
+	public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+	}
+
+	@Override
+	public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+	}
+
+	@Override
+	public boolean requiresPostCommitHanding(EntityPersister persister) {
+		return Member.class.equals(persister.getMappedClass());
+	}
+}
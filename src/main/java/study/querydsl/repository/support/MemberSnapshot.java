@@ -0,0 +1,429 @@
+package study.querydsl.repository.support;
+
+import static org.springframework.util.StringUtils.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.extern.slf4j.Slf4j;
+import study.querydsl.dto.MemberColumns;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.AfterCompletion;
+import study.querydsl.event.EntityChangeEvent;
+import study.querydsl.repository.MemberQueryRepository;
+import study.querydsl.repository.TeamRepository;
+
+/**
+ * 나이, 팀 조건 전용 회원 스냅샷 (member.snapshot.enabled=true 일 때만 사용)
+ * - member_id, age, team_id 를 나이순으로 정렬해서 열 단위로 파일에 쓰고 메모리 매핑 (힙 밖)
+ * - ageGoe, ageLoe 는 나이 열 이진 탐색, teamNameEq 는 범위 안의 team_id 비교 -> DB 없이 id, count 계산
+ * - 커밋된 변경(하이버네이트 post-commit 이벤트)은 트랜잭션별로 모아서 힙의 작은 delta 에 쌓고, max-delta 를 넘으면 다시 만듦
+ * - 기동시, 벌크 연산 후 전체를 다시 만듦
+ * - 커밋된 데이터만 보므로 쓰기 트랜잭션 안이거나 replica 를 사용하면(컨텐츠와 어긋남) 사용하지 않음
+ * - 다시 만들 때는 커밋된 데이터만 읽고(MemberCommitListener), 읽는 동안 커밋된 변경은 delta 로 넘김(PendingChanges)
+ */
+@Slf4j
+@Component
+public class MemberSnapshot extends MemberCommitListener {
+
+	private final MemberQueryRepository memberQueryRepository;
+	private final TeamRepository teamRepository;
+	private final boolean enabled;
+	private final boolean replicated;
+	private final Path dir;
+	private final int maxDelta;
+
+	private final AtomicLong generation = new AtomicLong();
+	private volatile State state = new State(null, Delta.EMPTY);
+	// id -> 행 (null 이면 삭제)
+	private final PendingChanges<Row> changes = new PendingChanges<>();
+
+	public MemberSnapshot(EntityManagerFactory emf, MemberQueryRepository memberQueryRepository,
+		TeamRepository teamRepository, PlatformTransactionManager transactionManager,
+		@Value("${member.snapshot.enabled:false}") boolean enabled,
+		@Value("${spring.datasource.replica.url:}") String replicaUrl,
+		@Value("${member.snapshot.dir:${java.io.tmpdir}}") String dir,
+		@Value("${member.snapshot.max-delta:1000}") int maxDelta) {
+		super(emf, transactionManager);
+		this.memberQueryRepository = memberQueryRepository;
+		this.teamRepository = teamRepository;
+		this.enabled = enabled;
+		this.replicated = hasText(replicaUrl);
+		this.dir = Paths.get(dir);
+		this.maxDelta = maxDelta;
+	}
+
+	@Override
+	protected boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * username, 여러 값 조건이 없고 스냅샷이 준비되어 있으면 사용 가능
+	 * 컨텐츠를 조회하는 스레드에서 호출해야 함 (현재 트랜잭션으로 판단)
+	 * - 쓰기 트랜잭션은 자기 변경이 컨텐츠에만 보이고, replica 는 지연만큼 스냅샷과 다르므로 사용하지 않음
+	 */
+	public boolean supports(MemberSearchCondition condition) {
+		return enabled && state.base != null && !hasText(condition.getUsername())
+			&& !condition.hasMultiValueFilters() && isCommittedView();
+	}
+
+	private boolean isCommittedView() {
+		if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+			return true;
+		}
+		return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !replicated;
+	}
+
+	public long count(MemberSearchCondition condition) {
+		State current = state;
+		long[] teamIds = teamIdsOf(condition);
+		if (teamIds == null && current.delta.isEmpty()) {
+			Columns base = current.base;
+			return Math.max(0, base.to(condition.getAgeLoe()) - base.from(condition.getAgeGoe()));
+		}
+		long[] count = new long[1];
+		scan(current, condition, teamIds, id -> count[0]++);
+		return count[0];
+	}
+
+	// 나이순 (delta 의 회원은 마지막에)
+	public long[] findIds(MemberSearchCondition condition) {
+		LongStream.Builder ids = LongStream.builder();
+		scan(state, condition, teamIdsOf(condition), ids::add);
+		return ids.build().toArray();
+	}
+
+	public boolean isReady() {
+		return state.base != null;
+	}
+
+	public int size() {
+		Columns base = state.base;
+		return base == null ? 0 : base.size();
+	}
+
+	public int deltaSize() {
+		return state.delta.size();
+	}
+
+	private void scan(State current, MemberSearchCondition condition, long[] teamIds, LongConsumer consumer) {
+		Columns base = current.base;
+		Delta delta = current.delta;
+		int to = base.to(condition.getAgeLoe());
+		for (int row = base.from(condition.getAgeGoe()); row < to; row++) {
+			long id = base.memberId(row);
+			if (matchesTeam(teamIds, base.teamId(row)) && !delta.changes.containsKey(id)) {
+				consumer.accept(id);
+			}
+		}
+		for (Map.Entry<Long, Row> entry : delta.changes.entrySet()) {
+			Row added = entry.getValue();
+			if (added != null
+				&& (condition.getAgeGoe() == null || added.age >= condition.getAgeGoe())
+				&& (condition.getAgeLoe() == null || added.age <= condition.getAgeLoe())
+				&& matchesTeam(teamIds, added.teamId)) {
+				consumer.accept(entry.getKey());
+			}
+		}
+	}
+
+	// teamNameEq 와 같이 팀명으로 id 를 찾음 (쿼리 캐시), 조건이 없으면 null
+	private long[] teamIdsOf(MemberSearchCondition condition) {
+		if (!hasText(condition.getTeamName())) {
+			return null;
+		}
+		List<Long> ids = teamRepository.findIdsByName(condition.getTeamName());
+		return ids.stream().mapToLong(Long::longValue).toArray();
+	}
+
+	private static boolean matchesTeam(long[] teamIds, long teamId) {
+		if (teamIds == null) {
+			return true;
+		}
+		for (long id : teamIds) {
+			if (id == teamId) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		if (!enabled) {
+			return;
+		}
+		Path path = dir.resolve("member-snapshot-" + generation.incrementAndGet() + ".bin");
+		Columns built = changes.rebuild(() -> {
+			MemberColumns columns = readCommitted(
+				() -> memberQueryRepository.searchColumns(new MemberSearchCondition()));
+			try {
+				return Columns.write(path, columns);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}, (columns, pending) -> {
+			Columns old = state.base;
+			state = new State(columns, Delta.of(pending));
+			if (old != null) {
+				old.delete();
+			}
+		});
+		log.debug("rebuilt member snapshot with {} members at {}", built.size(), path);
+	}
+
+	// delta 가 커지면 다시 만듦
+	@Scheduled(fixedDelayString = "${member.snapshot.compact-interval-ms:1000}")
+	public void compact() {
+		if (enabled && state.base != null && state.delta.size() > maxDelta) {
+			rebuild();
+		}
+	}
+
+	// 청크는 각자 커밋되므로 호출한 트랜잭션이 끝난 뒤 다시 읽음 (트랜잭션 밖이면 바로)
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+	public void onEntityChange(EntityChangeEvent event) {
+		if (event.getType() == EntityChangeEvent.Type.BULK && (event.isFor(Member.class) || event.isFor(Team.class))) {
+			rebuild();
+		}
+	}
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		if (event.getEntity() instanceof Member) {
+			apply((Long)event.getId(), rowOf(event.getPersister(), event.getState()));
+		}
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		if (event.getEntity() instanceof Member) {
+			apply((Long)event.getId(), rowOf(event.getPersister(), event.getState()));
+		}
+	}
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		if (event.getEntity() instanceof Member) {
+			apply((Long)event.getId(), null);
+		}
+	}
+
+	// 같은 트랜잭션의 변경은 모아서 트랜잭션이 끝날 때 delta 를 한번만 복사 (트랜잭션 동기화가 없으면 바로)
+	private void apply(Long id, Row row) {
+		Map<Long, Row> batch = AfterCompletion.bindOnce(this, LinkedHashMap::new, this::applyAll);
+		if (batch == null) {
+			applyAll(Collections.singletonMap(id, row));
+		} else {
+			batch.put(id, row);
+		}
+	}
+
+	private void applyAll(Map<Long, Row> rows) {
+		if (rows.isEmpty()) {
+			return;
+		}
+		changes.changed(rows, () -> state = new State(state.base, state.delta.withAll(rows)));
+	}
+
+	private static Row rowOf(EntityPersister persister, Object[] state) {
+		Team team = (Team)state[persister.getEntityMetamodel().getPropertyIndex("team")];
+		int age = (Integer)state[persister.getEntityMetamodel().getPropertyIndex("age")];
+		return new Row(age, team == null ? MemberColumns.NO_TEAM : team.getId());
+	}
+
+	private static final class State {
+		private final Columns base;
+		private final Delta delta;
+
+		State(Columns base, Delta delta) {
+			this.base = base;
+			this.delta = delta;
+		}
+	}
+
+	static final class Row {
+		final int age;
+		final long teamId;
+
+		Row(int age, long teamId) {
+			this.age = age;
+			this.teamId = teamId;
+		}
+	}
+
+	/**
+	 * 스냅샷 이후 커밋된 변경 (불변, 트랜잭션마다 한번 복사 -> 조회는 트랜잭션 단위로 변경을 봄)
+	 * 변경된 회원은 스냅샷에서 id 로 제외하고 새 값으로 대신함 (값이 null 이면 삭제)
+	 * 복사 비용이 트랜잭션마다 O(delta 크기)이므로 max-delta 를 넘으면 compact 로 비움
+	 */
+	static final class Delta {
+		static final Delta EMPTY = new Delta(Collections.emptyMap());
+
+		final Map<Long, Row> changes;
+
+		private Delta(Map<Long, Row> changes) {
+			this.changes = changes;
+		}
+
+		static Delta of(Map<Long, Row> changes) {
+			return changes.isEmpty() ? EMPTY : new Delta(new HashMap<>(changes));
+		}
+
+		// row 가 null 이면 삭제
+		Delta with(Long id, Row row) {
+			return withAll(Collections.singletonMap(id, row));
+		}
+
+		Delta withAll(Map<Long, Row> rows) {
+			Map<Long, Row> newChanges = new HashMap<>(changes);
+			newChanges.putAll(rows);
+			return new Delta(newChanges);
+		}
+
+		boolean isEmpty() {
+			return changes.isEmpty();
+		}
+
+		int size() {
+			return changes.size();
+		}
+	}
+
+	/**
+	 * 나이순으로 정렬한 열 파일 (헤더 | age int[n] | member_id long[n] | team_id long[n])
+	 * 매핑한 버퍼는 절대 위치로만 읽으므로 여러 스레드에서 공유
+	 */
+	static final class Columns {
+		private static final int MAGIC = 0x4d534e50;
+		private static final int HEADER = 8;
+
+		private final Path path;
+		private final MappedByteBuffer buffer;
+		private final int size;
+		private final int idsOffset;
+		private final int teamIdsOffset;
+
+		private Columns(Path path, MappedByteBuffer buffer, int size) {
+			this.path = path;
+			this.buffer = buffer;
+			this.size = size;
+			this.idsOffset = HEADER + size * Integer.BYTES;
+			this.teamIdsOffset = idsOffset + size * Long.BYTES;
+		}
+
+		static Columns write(Path path, MemberColumns columns) throws IOException {
+			int size = columns.size();
+			long bytes = HEADER + (long)size * (Integer.BYTES + Long.BYTES + Long.BYTES);
+			if (bytes > Integer.MAX_VALUE) {
+				throw new IllegalStateException("member snapshot too large: " + size + " rows");
+			}
+
+			// (나이, 원래 위치)를 long 하나로 묶어 정렬 -> 행 객체 없이 나이순 정렬
+			long[] order = new long[size];
+			for (int i = 0; i < size; i++) {
+				order[i] = ((long)columns.age(i) << 32) | i;
+			}
+			Arrays.sort(order);
+
+			Files.createDirectories(path.getParent());
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+				Columns result = new Columns(path, buffer, size);
+				buffer.putInt(0, MAGIC);
+				buffer.putInt(4, size);
+				for (int row = 0; row < size; row++) {
+					int source = (int)order[row];
+					buffer.putInt(HEADER + row * Integer.BYTES, columns.age(source));
+					buffer.putLong(result.idsOffset + row * Long.BYTES, columns.memberId(source));
+					buffer.putLong(result.teamIdsOffset + row * Long.BYTES, columns.teamId(source));
+				}
+				return result;
+			}
+		}
+
+		int size() {
+			return size;
+		}
+
+		int age(int row) {
+			return buffer.getInt(HEADER + row * Integer.BYTES);
+		}
+
+		long memberId(int row) {
+			return buffer.getLong(idsOffset + row * Long.BYTES);
+		}
+
+		long teamId(int row) {
+			return buffer.getLong(teamIdsOffset + row * Long.BYTES);
+		}
+
+		// age >= ageGoe 인 첫 행
+		int from(Integer ageGoe) {
+			return ageGoe == null ? 0 : lowerBound(ageGoe);
+		}
+
+		// age <= ageLoe 인 마지막 행 다음
+		int to(Integer ageLoe) {
+			return ageLoe == null || ageLoe == Integer.MAX_VALUE ? size : lowerBound(ageLoe + 1);
+		}
+
+		private int lowerBound(int age) {
+			int low = 0;
+			int high = size;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (age(mid) < age) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+
+		// 매핑은 GC 때 해제됨, 삭제 실패(매핑 중인 파일을 지울 수 없는 OS)는 무시
+		void delete() {
+			try {
+				Files.deleteIfExists(path);
+			} catch (IOException e) {
+				log.debug("could not delete old member snapshot {}", path, e);
+			}
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package study.querydsl.repository.support;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Session;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 페이징 쿼리 실행기
+ * - 기본: 컨텐츠 조회 후 필요할 때만 count 실행 (PageableExecutionUtils)
+ * - parallel-count 사용시: count 를 별도 커넥션/트랜잭션으로 컨텐츠 조회와 동시에 실행
+ *   쓰기 트랜잭션 안이면 컨텐츠에만 커밋 전 행이 보이므로 순차 실행
+ *   컨텐츠로 total 을 알 수 있어 count 가 필요 없으면 실행 중인 count 쿼리를 취소
+ */
+@Component
+public class PageExecutor implements DisposableBean {
+
+	private static final Object CANCELLED = new Object();
+
+	private final boolean parallelCount;
+	private final ThreadPoolExecutor executor;
+	private final TransactionTemplate transactionTemplate;
+	private final RepositoryMetrics metrics;
+	private final EntityManager em;
+
+	public PageExecutor(PlatformTransactionManager transactionManager, RepositoryMetrics metrics, EntityManager em,
+		@Value("${querydsl.pagination.parallel-count.enabled:false}") boolean parallelCount,
+		@Value("${querydsl.pagination.parallel-count.pool-size:4}") int poolSize,
+		@Value("${querydsl.pagination.parallel-count.queue-capacity:64}") int queueCapacity) {
+		this.parallelCount = parallelCount;
+		this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+			new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("page-count-"));
+		this.executor.allowCoreThreadTimeOut(true);
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.transactionTemplate.setReadOnly(true);
+		this.metrics = metrics;
+		this.em = em;
+	}
+
+	public <T> Page<T> getPage(Pageable pageable, Supplier<List<T>> content, LongSupplier total) {
+		return doGetPage(pageable, metrics.content(content), metrics.count(total));
+	}
+
+	private <T> Page<T> doGetPage(Pageable pageable, Supplier<List<T>> content, LongSupplier total) {
+		if (!parallelCount || pageable.isUnpaged() || inWriteTransaction()) {
+			return PageableExecutionUtils.getPage(content.get(), pageable, total);
+		}
+
+		// count 를 실행하는 세션 (취소용), 시작 전에 취소되면 CANCELLED
+		AtomicReference<Object> countSession = new AtomicReference<>();
+		Future<Long> count;
+		try {
+			count = executor.submit(() -> transactionTemplate.execute(status -> {
+				if (!countSession.compareAndSet(null, em.unwrap(Session.class))) {
+					throw new IllegalStateException("Count query cancelled");
+				}
+				return total.getAsLong();
+			}));
+		} catch (RejectedExecutionException e) {
+			// 풀이 가득 차면 호출 스레드에서 순차 실행
+			return PageableExecutionUtils.getPage(content.get(), pageable, total);
+		}
+
+		try {
+			return PageableExecutionUtils.getPage(content.get(), pageable, () -> await(count));
+		} finally {
+			if (!count.isDone()) {
+				// 마지막 페이지라 count 가 필요 없었으면 시작 전이면 건너뛰고, 실행 중이면 쿼리를 취소
+				count.cancel(false);
+				if (!countSession.compareAndSet(null, CANCELLED)) {
+					cancelQuery(countSession.get());
+				}
+			}
+		}
+	}
+
+	private static void cancelQuery(Object session) {
+		try {
+			((Session)session).cancelQuery();
+		} catch (RuntimeException e) {
+			// 이미 끝났거나 세션이 닫힌 경우
+		}
+	}
+
+	// 쓰기 트랜잭션의 커밋 전 행은 별도 트랜잭션의 count 에 보이지 않음
+	private static boolean inWriteTransaction() {
+		return TransactionSynchronizationManager.isActualTransactionActive()
+			&& !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+	}
+
+	private long await(Future<Long> count) {
+		try {
+			return count.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for count query", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException)e.getCause();
+			}
+			throw new IllegalStateException("Count query failed", e.getCause());
+		}
+	}
+
+	@Override
+	public void destroy() {
+		executor.shutdownNow();
+	}
+}
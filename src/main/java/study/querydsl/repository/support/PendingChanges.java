@@ -0,0 +1,73 @@
+package study.querydsl.repository.support;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * 회원 id 기준으로 덮어쓰는 메모리 구조를 다시 만드는 동안 커밋된 변경을 모아 두었다가 교체할 때 넘김
+ * (UsernameIndex, MemberSnapshot)
+ * - 변경 반영(changed)과 교체(rebuild 의 replace)는 같은 락 안에서 실행 -> 교체 사이에 빠지는 변경이 없음
+ * - 조회 중에 커밋된 변경은 조회 결과에 있을 수도 없을 수도 있지만 id 기준으로 덮어쓰므로 두 번 반영해도 같음
+ *
+ * @param <V> 회원 한 명의 값 (null 이면 삭제)
+ */
+public final class PendingChanges<V> {
+
+	private final Object rebuildLock = new Object();
+	private final Object changeLock = new Object();
+	// 다시 만드는 중에 커밋된 변경, id -> 값 (guarded by changeLock)
+	private Map<Long, V> pending;
+
+	/**
+	 * 커밋된 변경 하나를 apply 로 현재 구조에 반영하고, 다시 만드는 중이면 모아 둠
+	 */
+	public void changed(Long id, V value, Runnable apply) {
+		synchronized (changeLock) {
+			apply.run();
+			if (pending != null) {
+				pending.put(id, value);
+			}
+		}
+	}
+
+	/**
+	 * 한 트랜잭션에서 커밋된 변경을 apply 로 한번에 반영하고, 다시 만드는 중이면 모아 둠
+	 */
+	public void changed(Map<Long, V> values, Runnable apply) {
+		synchronized (changeLock) {
+			apply.run();
+			if (pending != null) {
+				pending.putAll(values);
+			}
+		}
+	}
+
+	/**
+	 * load 로 새 구조를 만들고 그동안 커밋된 변경(id 순서 유지, 읽기 전용)과 함께 replace 에 넘김
+	 * 다시 만드는 작업은 한번에 하나씩
+	 */
+	public <T> T rebuild(Supplier<T> load, BiConsumer<T, Map<Long, V>> replace) {
+		synchronized (rebuildLock) {
+			synchronized (changeLock) {
+				pending = new LinkedHashMap<>();
+			}
+			T loaded;
+			try {
+				loaded = load.get();
+			} catch (RuntimeException e) {
+				synchronized (changeLock) {
+					pending = null;
+				}
+				throw e;
+			}
+			synchronized (changeLock) {
+				replace.accept(loaded, Collections.unmodifiableMap(pending));
+				pending = null;
+			}
+			return loaded;
+		}
+	}
+}
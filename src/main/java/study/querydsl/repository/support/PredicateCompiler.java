@@ -0,0 +1,202 @@
+package study.querydsl.repository.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Operator;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+
+/**
+ * querydsl Predicate 를 메모리 객체용 필터로 변환
+ * - Path 는 resolver 가 행 객체의 접근자로 바꿈 (모르는 Path 면 null -> 지원하지 않음)
+ * - 식 트리를 한번만 함수로 바꿔 두고 행마다 방문하지 않음
+ * - SQL 과 같이 null 비교는 unknown(null), 최종 결과가 true 인 행만 통과
+ * - 지원하지 않는 연산이나 식이면 UnsupportedOperationException (호출하는 쪽에서 SQL 로 실행)
+ */
+public final class PredicateCompiler {
+
+	private PredicateCompiler() {
+	}
+
+	public static <T> java.util.function.Predicate<T> compile(Predicate predicate,
+		Function<Path<?>, Function<T, Object>> resolver) {
+		Expression<?> expression = unwrap(predicate);
+		if (expression == null) {
+			return row -> true;
+		}
+		Function<T, Object> compiled = compileExpression(expression, resolver);
+		return row -> Boolean.TRUE.equals(compiled.apply(row));
+	}
+
+	private static Expression<?> unwrap(Expression<?> expression) {
+		return expression instanceof BooleanBuilder ? ((BooleanBuilder)expression).getValue() : expression;
+	}
+
+	private static <T> Function<T, Object> compileExpression(Expression<?> expression,
+		Function<Path<?>, Function<T, Object>> resolver) {
+		expression = unwrap(expression);
+		if (expression instanceof Constant) {
+			Object value = ((Constant<?>)expression).getConstant();
+			return row -> value;
+		}
+		if (expression instanceof Path) {
+			Function<T, Object> accessor = resolver.apply((Path<?>)expression);
+			if (accessor == null) {
+				throw new UnsupportedOperationException("Unsupported path " + expression);
+			}
+			return accessor;
+		}
+		if (expression instanceof Operation) {
+			return compileOperation((Operation<?>)expression, resolver);
+		}
+		throw new UnsupportedOperationException("Unsupported expression " + expression);
+	}
+
+	private static <T> Function<T, Object> compileOperation(Operation<?> operation,
+		Function<Path<?>, Function<T, Object>> resolver) {
+		Operator operator = operation.getOperator();
+		List<Function<T, Object>> args = new ArrayList<>(operation.getArgs().size());
+		for (Expression<?> arg : operation.getArgs()) {
+			args.add(compileExpression(arg, resolver));
+		}
+
+		if (operator == Ops.AND) {
+			return row -> and(args.get(0).apply(row), args.get(1), row);
+		}
+		if (operator == Ops.OR) {
+			return row -> or(args.get(0).apply(row), args.get(1), row);
+		}
+		if (operator == Ops.NOT) {
+			return row -> {
+				Object value = args.get(0).apply(row);
+				return value == null ? null : !(Boolean)value;
+			};
+		}
+		if (operator == Ops.IS_NULL) {
+			return row -> args.get(0).apply(row) == null;
+		}
+		if (operator == Ops.IS_NOT_NULL) {
+			return row -> args.get(0).apply(row) != null;
+		}
+		if (operator == Ops.BETWEEN) {
+			return row -> {
+				Object value = args.get(0).apply(row);
+				Object from = args.get(1).apply(row);
+				Object to = args.get(2).apply(row);
+				if (value == null || from == null || to == null) {
+					return null;
+				}
+				return compare(value, from) >= 0 && compare(value, to) <= 0;
+			};
+		}
+		if (operator == Ops.IN || operator == Ops.NOT_IN) {
+			boolean in = operator == Ops.IN;
+			return row -> {
+				Object value = args.get(0).apply(row);
+				Object values = args.get(1).apply(row);
+				if (value == null) {
+					return null;
+				}
+				boolean contains = false;
+				for (Object candidate : (Collection<?>)values) {
+					if (candidate != null && compare(value, candidate) == 0) {
+						contains = true;
+						break;
+					}
+				}
+				return contains == in;
+			};
+		}
+		if (args.size() == 2) {
+			return compileBinary(operator, args.get(0), args.get(1));
+		}
+		throw new UnsupportedOperationException("Unsupported operator " + operator);
+	}
+
+	private static <T> Function<T, Object> compileBinary(Operator operator, Function<T, Object> left,
+		Function<T, Object> right) {
+		BinaryOperation operation;
+		if (operator == Ops.EQ) {
+			operation = (l, r) -> compare(l, r) == 0;
+		} else if (operator == Ops.NE) {
+			operation = (l, r) -> compare(l, r) != 0;
+		} else if (operator == Ops.LT) {
+			operation = (l, r) -> compare(l, r) < 0;
+		} else if (operator == Ops.GT) {
+			operation = (l, r) -> compare(l, r) > 0;
+		} else if (operator == Ops.LOE) {
+			operation = (l, r) -> compare(l, r) <= 0;
+		} else if (operator == Ops.GOE) {
+			operation = (l, r) -> compare(l, r) >= 0;
+		} else if (operator == Ops.EQ_IGNORE_CASE) {
+			operation = (l, r) -> l.toString().equalsIgnoreCase(r.toString());
+		} else if (operator == Ops.STARTS_WITH) {
+			operation = (l, r) -> l.toString().startsWith(r.toString());
+		} else if (operator == Ops.ENDS_WITH) {
+			operation = (l, r) -> l.toString().endsWith(r.toString());
+		} else if (operator == Ops.STRING_CONTAINS) {
+			operation = (l, r) -> l.toString().contains(r.toString());
+		} else {
+			throw new UnsupportedOperationException("Unsupported operator " + operator);
+		}
+		return row -> {
+			Object l = left.apply(row);
+			Object r = right.apply(row);
+			return l == null || r == null ? null : operation.apply(l, r);
+		};
+	}
+
+	@FunctionalInterface
+	private interface BinaryOperation {
+		boolean apply(Object left, Object right);
+	}
+
+	// SQL 3값 논리: false 가 하나라도 있으면 false, 아니면 null 이 있으면 null
+	private static <T> Object and(Object left, Function<T, Object> right, T row) {
+		if (Boolean.FALSE.equals(left)) {
+			return false;
+		}
+		Object value = right.apply(row);
+		if (Boolean.FALSE.equals(value)) {
+			return false;
+		}
+		return left == null || value == null ? null : true;
+	}
+
+	private static <T> Object or(Object left, Function<T, Object> right, T row) {
+		if (Boolean.TRUE.equals(left)) {
+			return true;
+		}
+		Object value = right.apply(row);
+		if (Boolean.TRUE.equals(value)) {
+			return true;
+		}
+		return left == null || value == null ? null : false;
+	}
+
+	// 정수 타입끼리는 (Integer 와 Long 등) 값으로 비교
+	// 그 외 타입이 다르면 DB 처럼 변환할 수 없으므로 지원하지 않음 (호출하는 쪽에서 SQL 로 실행)
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static int compare(Object left, Object right) {
+		if (isIntegral(left) && isIntegral(right)) {
+			return Long.compare(((Number)left).longValue(), ((Number)right).longValue());
+		}
+		if (left instanceof Comparable && left.getClass().isInstance(right)) {
+			return ((Comparable)left).compareTo(right);
+		}
+		throw new UnsupportedOperationException(
+			"Cannot compare " + left.getClass().getName() + " with " + right.getClass().getName());
+	}
+
+	private static boolean isIntegral(Object value) {
+		return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+	}
+}
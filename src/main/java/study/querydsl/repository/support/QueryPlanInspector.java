@@ -0,0 +1,105 @@
+package study.querydsl.repository.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberSearchShape;
+import study.querydsl.repository.MemberSearchTemplate;
+
+/**
+ * 검색 조건 조합(16가지 shape)별 H2 실행 계획 확인
+ * - MemberSearchTemplate 의 JPQL 을 SQL 로 변환하고 샘플 값을 바인딩해서 EXPLAIN 실행
+ * - 조건이 있는데 tableScan 이 나오는 shape 는 인덱스를 타지 못하는 것으로 표시
+ * - H2 전용, querydsl.diagnostics.explain-on-startup=true 면 기동시 로그로 출력
+ */
+@Slf4j
+@Component
+public class QueryPlanInspector {
+
+	private static final String TABLE_SCAN = "tableScan";
+
+	private final SessionFactoryImplementor sessionFactory;
+	private final JdbcTemplate jdbcTemplate;
+	private final boolean explainOnStartup;
+
+	public QueryPlanInspector(EntityManagerFactory emf, JdbcTemplate jdbcTemplate,
+		@Value("${querydsl.diagnostics.explain-on-startup:false}") boolean explainOnStartup) {
+		this.sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+		this.jdbcTemplate = jdbcTemplate;
+		this.explainOnStartup = explainOnStartup;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void explainOnStartup() {
+		if (!explainOnStartup) {
+			return;
+		}
+		for (QueryPlan plan : explainAll()) {
+			if (plan.isFullScan()) {
+				log.warn("shape {} falls back to table scan: {}", plan.getShape(), plan.getPlan());
+			} else {
+				log.info("shape {} plan: {}", plan.getShape(), plan.getPlan());
+			}
+		}
+	}
+
+	public List<QueryPlan> explainAll() {
+		List<QueryPlan> plans = new ArrayList<>(MemberSearchShape.SHAPE_COUNT);
+		for (int shape = 0; shape < MemberSearchShape.SHAPE_COUNT; shape++) {
+			plans.add(explain(shape));
+		}
+		return plans;
+	}
+
+	public QueryPlan explain(int shape) {
+		String sql = sessionFactory.getQueryPlanCache()
+			.getHQLQueryPlan(MemberSearchTemplate.jpqlOf(shape), false, Collections.emptyMap())
+			.getSqlStrings()[0];
+		List<Object> values = MemberSearchTemplate.bindings(shape, sampleCondition());
+		String plan = jdbcTemplate.query("explain " + sql, ps -> {
+			for (int i = 0; i < values.size(); i++) {
+				ps.setObject(i + 1, values.get(i));
+			}
+		}, rs -> rs.next() ? rs.getString(1) : "");
+		return new QueryPlan(shape, sql, plan, shape != 0 && plan.contains(TABLE_SCAN));
+	}
+
+	private static MemberSearchCondition sampleCondition() {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setUsername("member1");
+		condition.setTeamName("teamA");
+		condition.setAgeGoe(10);
+		condition.setAgeLoe(40);
+		return condition;
+	}
+
+	@Getter
+	@ToString
+	public static class QueryPlan {
+		private final int shape;
+		private final String sql;
+		private final String plan;
+		private final boolean fullScan;
+
+		QueryPlan(int shape, String sql, String plan, boolean fullScan) {
+			this.shape = shape;
+			this.sql = sql;
+			this.plan = plan;
+			this.fullScan = fullScan;
+		}
+	}
+}
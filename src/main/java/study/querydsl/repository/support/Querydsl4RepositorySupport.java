@@ -7,7 +7,6 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import org.springframework.data.jpa.repository.support.Querydsl;
 import org.springframework.data.querydsl.SimpleEntityPathResolver;
-import org.springframework.data.repository.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.Assert;
 
@@ -16,6 +15,7 @@ import javax.persistence.EntityManager;
 
 import java.util.List;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 import com.querydsl.core.types.EntityPath;
 import com.querydsl.core.types.Expression;
@@ -35,6 +35,8 @@ public abstract class Querydsl4RepositorySupport {
 	private Querydsl querydsl;
 	private EntityManager entityManager;
 	private JPAQueryFactory queryFactory;
+	private PageExecutor pageExecutor;
+	private CountCache countCache;
 
 	public Querydsl4RepositorySupport(Class<?> domainClass) {
 		Assert.notNull(domainClass, "Domain class must not be null!");
@@ -54,11 +56,23 @@ public abstract class Querydsl4RepositorySupport {
 		this.queryFactory = new JPAQueryFactory(entityManager);
 	}
 
+	@Autowired
+	public void setPageExecutor(PageExecutor pageExecutor) {
+		this.pageExecutor = pageExecutor;
+	}
+
+	@Autowired
+	public void setCountCache(CountCache countCache) {
+		this.countCache = countCache;
+	}
+
 	@PostConstruct
 	public void validate() {
 		Assert.notNull(entityManager, "EntityManager must not be null!");
 		Assert.notNull(querydsl, "Querydsl must not be null!");
 		Assert.notNull(queryFactory, "QueryFactory must not be null!");
+		Assert.notNull(pageExecutor, "PageExecutor must not be null!");
+		Assert.notNull(countCache, "CountCache must not be null!");
 	}
 
 	protected JPAQueryFactory getQueryFactory() {
@@ -84,20 +98,19 @@ public abstract class Querydsl4RepositorySupport {
 	protected <T> Page<T> applyPagination(Pageable pageable,
 		Function<JPAQueryFactory, JPAQuery> contentQuery) {
 		JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
-		List<T> content = getQuerydsl().applyPagination(pageable,
-			jpaQuery).fetch();
-		return PageableExecutionUtils.getPage(content, pageable,
-			jpaQuery::fetchCount);
+		// 페이징 적용 전에 count 쿼리를 유도 (projection, order by, 불필요한 left join 제거)
+		LongSupplier total = countCache.cached(CountCache.keyOf(jpaQuery),
+			CountQueryDeriver.countOf(getEntityManager(), jpaQuery));
+		return pageExecutor.getPage(pageable, () -> getQuerydsl().applyPagination(pageable,
+			jpaQuery).fetch(), total);
 	}
 
 	protected <T> Page<T> applyPagination(Pageable pageable,
 		Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory,
 		JPAQuery> countQuery) {
 		JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
-		List<T> content = getQuerydsl().applyPagination(pageable,
-			jpaContentQuery).fetch();
 		JPAQuery countResult = countQuery.apply(getQueryFactory());
-		return PageableExecutionUtils.getPage(content, pageable,
-			countResult::fetchCount);
+		return pageExecutor.getPage(pageable, () -> getQuerydsl().applyPagination(pageable,
+			jpaContentQuery).fetch(), countCache.cached(CountCache.keyOf(countResult), countResult::fetchCount));
 	}
 }
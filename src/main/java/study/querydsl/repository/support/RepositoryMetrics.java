@@ -0,0 +1,112 @@
+package study.querydsl.repository.support;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * 리포지토리 메소드별, 검색 조건 조합(shape)별 메트릭
+ * - querydsl.repository: 호출 지연시간 (p50, p95, p99)
+ * - querydsl.repository.rows: 반환 건수
+ * - querydsl.repository.statements: 호출 한번에 실행된 SQL 수 (호출 스레드 기준)
+ * - querydsl.repository.page: 페이징 쿼리의 content / count 실행 시간
+ * 현재 호출 정보는 RepositoryMetricsAspect 가 스레드 로컬에 설정
+ */
+@Component
+public class RepositoryMetrics {
+
+	private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+	private static final ThreadLocal<Invocation> CURRENT = new ThreadLocal<>();
+
+	private final MeterRegistry registry;
+
+	public RepositoryMetrics(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	Invocation begin(String method, String shape) {
+		Invocation invocation = new Invocation(method, shape, CURRENT.get());
+		CURRENT.set(invocation);
+		return invocation;
+	}
+
+	void end(Invocation invocation, long elapsedNanos, long rows) {
+		if (invocation.parent == null) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set(invocation.parent);
+			invocation.parent.statements += invocation.statements;
+		}
+		Timer.builder("querydsl.repository")
+			.tags("method", invocation.method, "shape", invocation.shape)
+			.publishPercentiles(PERCENTILES)
+			.register(registry)
+			.record(elapsedNanos, TimeUnit.NANOSECONDS);
+		DistributionSummary.builder("querydsl.repository.statements")
+			.tags("method", invocation.method, "shape", invocation.shape)
+			.register(registry)
+			.record(invocation.statements);
+		if (rows >= 0) {
+			DistributionSummary.builder("querydsl.repository.rows")
+				.tags("method", invocation.method, "shape", invocation.shape)
+				.publishPercentiles(PERCENTILES)
+				.register(registry)
+				.record(rows);
+		}
+	}
+
+	// SqlStatementCounter 에서 SQL 마다 호출
+	static void statementExecuted() {
+		Invocation invocation = CURRENT.get();
+		if (invocation != null) {
+			invocation.statements++;
+		}
+	}
+
+	public <T> Supplier<T> content(Supplier<T> content) {
+		Timer timer = pageTimer("content");
+		return () -> timer.record(content);
+	}
+
+	// parallel-count 이면 다른 스레드에서 실행되므로 타이머를 미리 만들어 둠
+	public LongSupplier count(LongSupplier count) {
+		Timer timer = pageTimer("count");
+		return () -> {
+			long start = System.nanoTime();
+			try {
+				return count.getAsLong();
+			} finally {
+				timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			}
+		};
+	}
+
+	private Timer pageTimer(String phase) {
+		Invocation invocation = CURRENT.get();
+		return Timer.builder("querydsl.repository.page")
+			.tags("method", invocation != null ? invocation.method : "unknown",
+				"shape", invocation != null ? invocation.shape : "unknown",
+				"phase", phase)
+			.publishPercentiles(PERCENTILES)
+			.register(registry);
+	}
+
+	static class Invocation {
+		private final String method;
+		private final String shape;
+		private final Invocation parent;
+		private long statements;
+
+		Invocation(String method, String shape, Invocation parent) {
+			this.method = method;
+			this.shape = shape;
+			this.parent = parent;
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package study.querydsl.repository.support;
+
+import java.util.Collection;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import study.querydsl.dto.MemberColumns;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberSearchShape;
+
+/**
+ * 검색 리포지토리의 public 메소드 호출마다 RepositoryMetrics 기록
+ * - MemberRepositoryCustom 구현(MemberRepositoryImpl), MemberJpaRepository, MemberQueryRepository,
+ *   Querydsl4RepositorySupport 를 상속한 리포지토리 (상위 클래스의 setter 등은 제외)
+ */
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+	private final RepositoryMetrics metrics;
+
+	public RepositoryMetricsAspect(RepositoryMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	@Around("execution(public * *(..)) && ("
+		+ "within(study.querydsl.repository.MemberRepositoryImpl)"
+		+ " || within(study.querydsl.repository.MemberJpaRepository)"
+		+ " || within(study.querydsl.repository.MemberQueryRepository)"
+		+ " || (within(study.querydsl.repository.support.Querydsl4RepositorySupport+)"
+		+ " && !within(study.querydsl.repository.support.Querydsl4RepositorySupport)))")
+	public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+		String method = joinPoint.getSignature().getDeclaringType().getSimpleName()
+			+ "." + joinPoint.getSignature().getName();
+		RepositoryMetrics.Invocation invocation = metrics.begin(method, shapeOf(joinPoint.getArgs()));
+		long start = System.nanoTime();
+		Object result = null;
+		try {
+			result = joinPoint.proceed();
+			return result;
+		} finally {
+			metrics.end(invocation, System.nanoTime() - start, rowsOf(result));
+		}
+	}
+
+	private static String shapeOf(Object[] args) {
+		for (Object arg : args) {
+			if (arg instanceof MemberSearchCondition) {
+				return MemberSearchShape.nameOf(MemberSearchShape.shapeOf((MemberSearchCondition)arg));
+			}
+		}
+		return "n/a";
+	}
+
+	// Stream 등 건수를 알 수 없는 결과는 -1
+	private static long rowsOf(Object result) {
+		if (result instanceof Collection) {
+			return ((Collection<?>)result).size();
+		}
+		if (result instanceof MemberColumns) {
+			return ((MemberColumns)result).size();
+		}
+		if (result instanceof Slice) {
+			return ((Slice<?>)result).getNumberOfElements();
+		}
+		return -1;
+	}
+}
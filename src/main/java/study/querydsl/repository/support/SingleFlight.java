@@ -0,0 +1,136 @@
+package study.querydsl.repository.support;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import study.querydsl.dto.MemberTeamDto;
+
+/**
+ * 동일 조회 동시 실행 합치기
+ * - 같은 키로 실행 중인 호출이 있으면 DB 를 다시 조회하지 않고 그 결과(또는 예외)를 기다림
+ * - 끝난 호출의 결과는 보관하지 않음 (캐시가 아님)
+ * - 호출자가 쓰기 트랜잭션 안이면 아직 커밋되지 않은 변경이 보일 수 있으므로 합치지 않음 (readOnly 트랜잭션은 합침)
+ * - 기다린 호출은 결과를 공유하지 않도록 각자 복사본(List, Page, Slice 는 수정 불가)을 받음
+ * - timeout 안에 먼저 들어온 호출이 끝나지 않으면 기다리지 않고 직접 조회
+ */
+@Component
+public class SingleFlight {
+
+	@FunctionalInterface
+	public interface Call<T> {
+		T call() throws Throwable;
+	}
+
+	private final boolean enabled;
+	private final Duration timeout;
+	private final MeterRegistry meterRegistry;
+	private final Map<Object, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+	private final AtomicLong executed = new AtomicLong();
+	private final AtomicLong coalesced = new AtomicLong();
+
+	public SingleFlight(@Value("${querydsl.single-flight.enabled:true}") boolean enabled,
+		@Value("${querydsl.single-flight.timeout:5s}") Duration timeout,
+		MeterRegistry meterRegistry) {
+		this.enabled = enabled;
+		this.timeout = timeout;
+		this.meterRegistry = meterRegistry;
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T> T execute(String name, Object key, Call<T> call) throws Throwable {
+		if (!enabled || TransactionSynchronizationManager.isActualTransactionActive()
+			&& !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			return call.call();
+		}
+		Object flightKey = Arrays.asList(name, key);
+		CompletableFuture<Object> flight = new CompletableFuture<>();
+		CompletableFuture<Object> inFlight = flights.putIfAbsent(flightKey, flight);
+		if (inFlight != null) {
+			coalesced.incrementAndGet();
+			meterRegistry.counter("querydsl.single-flight", "method", name, "result", "coalesced").increment();
+			try {
+				return (T)copyOf(inFlight.get(timeout.toMillis(), TimeUnit.MILLISECONDS));
+			} catch (ExecutionException e) {
+				throw e.getCause();
+			} catch (TimeoutException e) {
+				meterRegistry.counter("querydsl.single-flight", "method", name, "result", "timeout").increment();
+				return call.call();
+			}
+		}
+
+		executed.incrementAndGet();
+		meterRegistry.counter("querydsl.single-flight", "method", name, "result", "executed").increment();
+		try {
+			T result = call.call();
+			// 먼저 들어온 호출자가 결과를 바꿔도 기다린 호출에 보이지 않도록 복사해서 전달
+			flight.complete(copyOf(result));
+			return result;
+		} catch (Throwable e) {
+			flight.completeExceptionally(e);
+			throw e;
+		} finally {
+			flights.remove(flightKey, flight);
+		}
+	}
+
+	static Object copyOf(Object result) {
+		if (result instanceof Page) {
+			Page<?> page = (Page<?>)result;
+			return new PageImpl<>(copyOf(page.getContent()), page.getPageable(), page.getTotalElements());
+		}
+		if (result instanceof Slice) {
+			Slice<?> slice = (Slice<?>)result;
+			return new SliceImpl<>(copyOf(slice.getContent()), slice.getPageable(), slice.hasNext());
+		}
+		if (result instanceof List) {
+			return copyOf((List<?>)result);
+		}
+		return copyElement(result);
+	}
+
+	private static List<Object> copyOf(List<?> content) {
+		return Collections.unmodifiableList(content.stream()
+			.map(SingleFlight::copyElement)
+			.collect(Collectors.toList()));
+	}
+
+	private static Object copyElement(Object element) {
+		if (element instanceof MemberTeamDto) {
+			MemberTeamDto dto = (MemberTeamDto)element;
+			return new MemberTeamDto(dto.getMemberId(), dto.getUsername(), dto.getAge(), dto.getTeamId(),
+				dto.getTeamName());
+		}
+		return element;
+	}
+
+	public long getExecuted() {
+		return executed.get();
+	}
+
+	public long getCoalesced() {
+		return coalesced.get();
+	}
+
+	public int getInFlight() {
+		return flights.size();
+	}
+}
@@ -0,0 +1,44 @@
+package study.querydsl.repository.support;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import study.querydsl.dto.MemberSearchCondition;
+
+/**
+ * @Coalesced 메소드를 SingleFlight 로 실행 (키: 메소드 + 정규화한 검색 조건 + 나머지 인자)
+ * 트랜잭션보다 바깥에서 실행되어야 하므로 가장 먼저 적용, 합쳐진 호출은 RepositoryMetrics 에 기록되지 않음
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SingleFlightAspect {
+
+	private final SingleFlight singleFlight;
+
+	public SingleFlightAspect(SingleFlight singleFlight) {
+		this.singleFlight = singleFlight;
+	}
+
+	@Around("@annotation(study.querydsl.repository.support.Coalesced)")
+	public Object coalesce(ProceedingJoinPoint joinPoint) throws Throwable {
+		String method = joinPoint.getSignature().getDeclaringType().getSimpleName()
+			+ "." + joinPoint.getSignature().getName();
+		return singleFlight.execute(method, keyOf(joinPoint.getArgs()), joinPoint::proceed);
+	}
+
+	private static List<Object> keyOf(Object[] args) {
+		List<Object> key = new ArrayList<>(args.length);
+		for (Object arg : args) {
+			key.add(arg instanceof MemberSearchCondition ? ((MemberSearchCondition)arg).normalize() : arg);
+		}
+		return key;
+	}
+}
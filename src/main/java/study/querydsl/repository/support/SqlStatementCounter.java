@@ -0,0 +1,16 @@
+package study.querydsl.repository.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * 하이버네이트가 SQL 을 준비할 때마다 현재 리포지토리 호출의 SQL 수를 증가
+ * (hibernate.session_factory.statement_inspector 로 등록, SQL 은 변경하지 않음)
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+	@Override
+	public String inspect(String sql) {
+		RepositoryMetrics.statementExecuted();
+		return sql;
+	}
+}
@@ -0,0 +1,91 @@
+package study.querydsl.repository.support;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 한 작업 단위(HTTP 요청, 테스트 등)에서 실행된 SQL 수와 지연 로딩된 연관관계 집계
+ * - StatementBudgetListener(p6spy)가 SQL 실행마다, LazyLoadListener 가 지연 로딩마다 현재 스레드의 budget 에 기록
+ * - 예산을 넘으면 fail 이면 그 자리에서 예외, 아니면 close 시점에 경고 로그
+ *
+ * <pre>
+ * try (StatementBudget budget = StatementBudget.open("test", 2, true)) {
+ *     ...
+ * }
+ * </pre>
+ */
+@Slf4j
+public final class StatementBudget implements AutoCloseable {
+
+	private static final ThreadLocal<StatementBudget> CURRENT = new ThreadLocal<>();
+
+	private final String name;
+	private final int budget;
+	private final boolean fail;
+	private final StatementBudget parent;
+	private final Map<String, Integer> lazyLoads = new LinkedHashMap<>();
+	private int statements;
+
+	private StatementBudget(String name, int budget, boolean fail, StatementBudget parent) {
+		this.name = name;
+		this.budget = budget;
+		this.fail = fail;
+		this.parent = parent;
+	}
+
+	public static StatementBudget open(String name, int budget, boolean fail) {
+		StatementBudget statementBudget = new StatementBudget(name, budget, fail, CURRENT.get());
+		CURRENT.set(statementBudget);
+		return statementBudget;
+	}
+
+	static void statementExecuted() {
+		StatementBudget current = CURRENT.get();
+		if (current == null) {
+			return;
+		}
+		current.statements++;
+		if (current.fail && current.statements == current.budget + 1) {
+			throw new IllegalStateException(current.describe());
+		}
+	}
+
+	static void lazyLoaded(String association) {
+		StatementBudget current = CURRENT.get();
+		if (current != null) {
+			current.lazyLoads.merge(association, 1, Integer::sum);
+		}
+	}
+
+	public int getStatements() {
+		return statements;
+	}
+
+	// 연관관계 이름(예: Member.team) -> 지연 로딩 횟수
+	public Map<String, Integer> getLazyLoads() {
+		return lazyLoads;
+	}
+
+	public boolean isExceeded() {
+		return statements > budget;
+	}
+
+	@Override
+	public void close() {
+		if (parent == null) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set(parent);
+		}
+		if (isExceeded() && !fail) {
+			log.warn(describe());
+		}
+	}
+
+	private String describe() {
+		return "Statement budget exceeded: " + name + " issued " + statements + " statements (budget " + budget
+			+ ")" + (lazyLoads.isEmpty() ? "" : ", lazy loads " + lazyLoads);
+	}
+}
@@ -0,0 +1,22 @@
+package study.querydsl.repository.support;
+
+import java.sql.SQLException;
+
+import org.springframework.stereotype.Component;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+
+/**
+ * p6spy 로 실제 실행된 SQL(배치는 실행 1회)을 현재 StatementBudget 에 기록
+ * (p6spy-spring-boot-starter 가 JdbcEventListener 빈을 자동 등록)
+ */
+@Component
+public class StatementBudgetListener extends SimpleJdbcEventListener {
+
+	@Override
+	public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos,
+		SQLException e) {
+		StatementBudget.statementExecuted();
+	}
+}
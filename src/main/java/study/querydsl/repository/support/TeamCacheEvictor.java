@@ -0,0 +1,43 @@
+package study.querydsl.repository.support;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import study.querydsl.entity.Team;
+import study.querydsl.event.AfterCompletion;
+import study.querydsl.event.EntityChangeEvent;
+
+/**
+ * Team 쓰기 시 2차 캐시 명시적 무효화
+ * - 팀명 쿼리 캐시 리전은 커밋(또는 롤백) 이후 비움
+ * - querydsl 벌크 연산 등 엔티티 이벤트가 없는 쓰기 후에는 evictAll 을 직접 호출
+ */
+@Component
+public class TeamCacheEvictor {
+
+	private final Cache cache;
+
+	public TeamCacheEvictor(EntityManagerFactory emf) {
+		this.cache = emf.unwrap(SessionFactory.class).getCache();
+	}
+
+	@EventListener
+	public void onEntityChange(EntityChangeEvent event) {
+		if (!event.isFor(Team.class)) {
+			return;
+		}
+		// 트랜잭션 밖이면 바로 비움
+		if (!AfterCompletion.runOnce(this, () -> cache.evictQueryRegion(Team.NAME_QUERY_REGION))) {
+			cache.evictQueryRegion(Team.NAME_QUERY_REGION);
+		}
+	}
+
+	public void evictAll() {
+		cache.evictEntityData(Team.class);
+		cache.evictQueryRegion(Team.NAME_QUERY_REGION);
+	}
+}
@@ -0,0 +1,303 @@
+package study.querydsl.repository.support;
+
+import static org.springframework.util.StringUtils.*;
+import static study.querydsl.entity.QMember.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import lombok.extern.slf4j.Slf4j;
+import study.querydsl.dto.UsernameMatch;
+import study.querydsl.entity.Member;
+import study.querydsl.event.EntityChangeEvent;
+
+/**
+ * username 메모리 인덱스 (username -> member id)
+ * - PREFIX: 정렬된 username 맵에서 접두어 범위만 읽음
+ * - CONTAINS: 3글자 단위(trigram) 역색인에서 가장 짧은 목록만 확인 (3글자 미만은 전체 username 확인)
+ * - 찾은 id 는 member.id in (...) 조건으로 기존 querydsl 검색에 합침
+ * - Member 저장, 삭제, username 변경을 커밋 이후 반영, 기동시와 벌크 연산 후에는 다시 만듦
+ * - 다시 만들 때는 커밋된 데이터만 읽고(MemberCommitListener), 읽는 동안 커밋된 변경은 교체 후 반영(PendingChanges)
+ * - 인덱스가 준비되지 않았거나 결과가 member.username-index.max-ids 를 넘으면 DB like 조건으로 대체
+ *   (max-ids 는 querydsl.in-list.chunk-size 이하로 제한 -> id 목록 하나가 in 목록 청크 하나에 들어감)
+ */
+@Slf4j
+@Component
+public class UsernameIndex extends MemberCommitListener {
+
+	private final JPAQueryFactory queryFactory;
+	private final boolean enabled;
+	private final int maxIds;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private Entries entries = new Entries();
+	// id -> username (null 이면 삭제)
+	private final PendingChanges<String> changes = new PendingChanges<>();
+	private volatile boolean ready;
+
+	public UsernameIndex(EntityManagerFactory emf, JPAQueryFactory queryFactory,
+		PlatformTransactionManager transactionManager, InListChunker inListChunker,
+		@Value("${member.username-index.enabled:true}") boolean enabled,
+		@Value("${member.username-index.max-ids:1000}") int maxIds) {
+		super(emf, transactionManager);
+		this.queryFactory = queryFactory;
+		this.enabled = enabled;
+		this.maxIds = Math.min(maxIds, inListChunker.getChunkSize());
+	}
+
+	@Override
+	protected boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * usernameEq 대체, EXACT 는 member.username.eq
+	 */
+	public BooleanExpression predicate(String username, UsernameMatch match) {
+		if (!hasText(username)) {
+			return null;
+		}
+		if (match == null || match == UsernameMatch.EXACT) {
+			return member.username.eq(username);
+		}
+		List<Long> ids = find(username, match);
+		if (ids != null) {
+			return member.id.in(ids);
+		}
+		return match == UsernameMatch.PREFIX ? member.username.startsWith(username) : member.username.contains(username);
+	}
+
+	/**
+	 * PREFIX, CONTAINS 에 맞는 회원 id (정렬 안됨)
+	 * 인덱스를 사용할 수 없거나 max-ids 를 넘으면 null
+	 */
+	public List<Long> find(String username, UsernameMatch match) {
+		if (!ready) {
+			return null;
+		}
+		List<Long> ids;
+		lock.readLock().lock();
+		try {
+			ids = match == UsernameMatch.PREFIX
+				? entries.findByPrefix(username, maxIds + 1)
+				: entries.findByContains(username, maxIds + 1);
+		} finally {
+			lock.readLock().unlock();
+		}
+		return ids.size() > maxIds ? null : ids;
+	}
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		if (!enabled) {
+			return;
+		}
+		Entries loaded = changes.rebuild(() -> {
+			List<Tuple> rows = readCommitted(() -> queryFactory
+				.select(member.id, member.username)
+				.from(member)
+				.fetch());
+			Entries built = new Entries();
+			for (Tuple row : rows) {
+				built.put(row.get(member.id), row.get(member.username));
+			}
+			return built;
+		}, (built, pending) -> {
+			pending.forEach(built::put);
+			lock.writeLock().lock();
+			try {
+				entries = built;
+			} finally {
+				lock.writeLock().unlock();
+			}
+		});
+		ready = true;
+		log.debug("rebuilt username index with {} members", loaded.size());
+	}
+
+	// 벌크 연산은 어떤 회원이 바뀌었는지 모르므로 다시 만듦
+	// 청크는 각자 커밋되므로 호출한 트랜잭션이 롤백되어도 끝난 뒤 다시 읽음 (트랜잭션 밖이면 바로)
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+	public void onEntityChange(EntityChangeEvent event) {
+		if (event.getType() == EntityChangeEvent.Type.BULK && event.isFor(Member.class)) {
+			rebuild();
+		}
+	}
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		if (event.getEntity() instanceof Member) {
+			put((Long)event.getId(), usernameOf(event.getPersister(), event.getState()));
+		}
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		if (event.getEntity() instanceof Member) {
+			put((Long)event.getId(), usernameOf(event.getPersister(), event.getState()));
+		}
+	}
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		if (event.getEntity() instanceof Member) {
+			put((Long)event.getId(), null);
+		}
+	}
+
+	// username 이 null 이면 삭제
+	private void put(Long id, String username) {
+		changes.changed(id, username, () -> {
+			lock.writeLock().lock();
+			try {
+				entries.put(id, username);
+			} finally {
+				lock.writeLock().unlock();
+			}
+		});
+	}
+
+	private static String usernameOf(EntityPersister persister, Object[] state) {
+		return (String)state[persister.getEntityMetamodel().getPropertyIndex("username")];
+	}
+
+	/**
+	 * 인덱스 본체 (동기화는 UsernameIndex 의 lock 으로)
+	 */
+	static class Entries {
+		static final int GRAM = 3;
+
+		private final Map<Long, String> usernames = new HashMap<>();
+		private final NavigableMap<String, Set<Long>> byUsername = new TreeMap<>();
+		private final Map<String, Set<Long>> byGram = new HashMap<>();
+
+		void put(Long id, String username) {
+			remove(id);
+			if (username == null) {
+				return;
+			}
+			usernames.put(id, username);
+			byUsername.computeIfAbsent(username, k -> new HashSet<>()).add(id);
+			for (String gram : gramsOf(username)) {
+				byGram.computeIfAbsent(gram, k -> new HashSet<>()).add(id);
+			}
+		}
+
+		void remove(Long id) {
+			String username = usernames.remove(id);
+			if (username == null) {
+				return;
+			}
+			removeFrom(byUsername, username, id);
+			for (String gram : gramsOf(username)) {
+				removeFrom(byGram, gram, id);
+			}
+		}
+
+		List<Long> findByPrefix(String prefix, int limit) {
+			List<Long> ids = new ArrayList<>();
+			for (Map.Entry<String, Set<Long>> entry : byUsername.tailMap(prefix, true).entrySet()) {
+				if (!entry.getKey().startsWith(prefix)) {
+					break;
+				}
+				if (addAll(ids, entry.getValue(), limit)) {
+					break;
+				}
+			}
+			return ids;
+		}
+
+		List<Long> findByContains(String text, int limit) {
+			List<Long> ids = new ArrayList<>();
+			if (text.length() < GRAM) {
+				for (Map.Entry<String, Set<Long>> entry : byUsername.entrySet()) {
+					if (entry.getKey().contains(text) && addAll(ids, entry.getValue(), limit)) {
+						break;
+					}
+				}
+				return ids;
+			}
+			// 모든 trigram 을 포함해야 하므로 가장 짧은 목록만 원문으로 확인
+			Set<Long> candidates = null;
+			for (String gram : gramsOf(text)) {
+				Set<Long> posting = byGram.getOrDefault(gram, Collections.emptySet());
+				if (candidates == null || posting.size() < candidates.size()) {
+					candidates = posting;
+				}
+			}
+			for (Long id : candidates) {
+				if (usernames.get(id).contains(text)) {
+					ids.add(id);
+					if (ids.size() >= limit) {
+						break;
+					}
+				}
+			}
+			return ids;
+		}
+
+		int size() {
+			return usernames.size();
+		}
+
+		private static boolean addAll(List<Long> ids, Set<Long> values, int limit) {
+			for (Long id : values) {
+				ids.add(id);
+				if (ids.size() >= limit) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private static Set<String> gramsOf(String text) {
+			Set<String> grams = new HashSet<>();
+			for (int i = 0; i + GRAM <= text.length(); i++) {
+				grams.add(text.substring(i, i + GRAM));
+			}
+			return grams;
+		}
+
+		private static void removeFrom(Map<String, Set<Long>> map, String key, Long id) {
+			Set<Long> ids = map.get(key);
+			if (ids == null) {
+				return;
+			}
+			ids.remove(id);
+			if (ids.isEmpty()) {
+				map.remove(key);
+			}
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package study.querydsl.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+
+@Service
+@RequiredArgsConstructor
+public class MemberExportService {
+
+	private static final byte NEW_LINE = '\n';
+
+	private final MemberRepository memberRepository;
+	private final ObjectMapper objectMapper;
+
+	@Value("${member.export.fetch-size:500}")
+	private int fetchSize;
+
+	// 결과를 한 줄에 하나씩(NDJSON) 읽는 즉시 내보냄 -> 결과 크기와 상관없이 힙 사용량 일정
+	@Transactional(readOnly = true)
+	public long exportNdjson(MemberSearchCondition condition, OutputStream out) throws IOException {
+		long count = 0;
+		try (Stream<MemberTeamDto> stream = memberRepository.searchStream(condition, fetchSize)) {
+			Iterator<MemberTeamDto> iterator = stream.iterator();
+			while (iterator.hasNext()) {
+				out.write(objectMapper.writeValueAsBytes(iterator.next()));
+				out.write(NEW_LINE);
+				if (++count % fetchSize == 0) {
+					out.flush();
+				}
+			}
+		}
+		out.flush();
+		return count;
+	}
+}
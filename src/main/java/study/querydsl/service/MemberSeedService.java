@@ -0,0 +1,129 @@
+package study.querydsl.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+/**
+ * 대량 테스트 데이터 적재
+ * - batch-size 건마다 flush(jdbc batch insert) 후 clear, 트랜잭션 커밋 -> 영속성 컨텍스트 크기 일정
+ * - skew 0 이면 팀에 순서대로 배정, 0 보다 크면 zipf 분포 (앞쪽 팀에 회원이 몰림)
+ */
+@Slf4j
+@Service
+public class MemberSeedService {
+
+	private final EntityManager em;
+	private final TransactionTemplate transactionTemplate;
+	private final int batchSize;
+
+	public MemberSeedService(EntityManager em, PlatformTransactionManager transactionManager,
+		@Value("${member.seed.batch-size:1000}") int batchSize) {
+		this.em = em;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.batchSize = batchSize;
+	}
+
+	public SeedResult seed(int teamCount, int memberCount, double skew) {
+		Assert.isTrue(teamCount > 0, "teamCount must be positive");
+		long start = System.nanoTime();
+
+		List<Long> teamIds = transactionTemplate.execute(status -> {
+			List<Long> ids = new ArrayList<>(teamCount);
+			for (int i = 0; i < teamCount; i++) {
+				Team team = new Team(teamName(i));
+				em.persist(team);
+				ids.add(team.getId());
+			}
+			return ids;
+		});
+
+		TeamPicker picker = new TeamPicker(teamCount, skew);
+		for (int from = 0; from < memberCount; from += batchSize) {
+			int chunkStart = from;
+			int chunkEnd = Math.min(from + batchSize, memberCount);
+			transactionTemplate.executeWithoutResult(status -> {
+				for (int i = chunkStart; i < chunkEnd; i++) {
+					// changeTeam 은 team.members 를 초기화하므로 프록시만 연결
+					Member member = new Member("member" + i, i % 100);
+					member.setTeam(em.getReference(Team.class, teamIds.get(picker.pick(i))));
+					em.persist(member);
+				}
+				em.flush();
+				em.clear();
+			});
+		}
+
+		SeedResult result = new SeedResult(teamCount, memberCount, System.nanoTime() - start);
+		log.info("seeded {}", result);
+		return result;
+	}
+
+	// teamA ~ teamZ, 이후는 team26, team27 ...
+	public static String teamName(int index) {
+		return index < 26 ? "team" + (char)('A' + index) : "team" + index;
+	}
+
+	static class TeamPicker {
+		private final int teamCount;
+		private final double[] cumulative;
+		private final Random random = new Random(42);
+
+		TeamPicker(int teamCount, double skew) {
+			this.teamCount = teamCount;
+			this.cumulative = skew > 0 ? zipf(teamCount, skew) : null;
+		}
+
+		int pick(int memberIndex) {
+			if (cumulative == null) {
+				return memberIndex % teamCount;
+			}
+			int index = Arrays.binarySearch(cumulative, random.nextDouble());
+			return Math.min(index >= 0 ? index : -index - 1, teamCount - 1);
+		}
+
+		private static double[] zipf(int teamCount, double skew) {
+			double[] cumulative = new double[teamCount];
+			double sum = 0;
+			for (int k = 0; k < teamCount; k++) {
+				sum += 1 / Math.pow(k + 1, skew);
+				cumulative[k] = sum;
+			}
+			for (int k = 0; k < teamCount; k++) {
+				cumulative[k] /= sum;
+			}
+			return cumulative;
+		}
+	}
+
+	@Getter
+	@ToString
+	public static class SeedResult {
+		private final int teams;
+		private final int members;
+		private final long elapsedMillis;
+		private final double rowsPerSecond;
+
+		SeedResult(int teams, int members, long elapsedNanos) {
+			this.teams = teams;
+			this.members = members;
+			this.elapsedMillis = elapsedNanos / 1_000_000;
+			this.rowsPerSecond = (teams + members) / Math.max(elapsedNanos / 1e9, 1e-9);
+		}
+	}
+}
@@ -0,0 +1,252 @@
+package study.querydsl.service;
+
+import static study.querydsl.entity.QMember.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import lombok.extern.slf4j.Slf4j;
+import study.querydsl.dto.TeamStats;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.EntityChangeEvent;
+import study.querydsl.repository.TeamRepository;
+import study.querydsl.repository.support.MemberCommitListener;
+
+/**
+ * 팀별 회원 수, 나이 합계/평균/최소/최대를 메모리에 유지
+ * - Member 저장, 삭제, 나이 변경, changeTeam 을 커밋 이후(하이버네이트 post-commit 이벤트) 증분 반영
+ * - 최소/최대는 나이별 인원 수로 유지해서 삭제되어도 다시 스캔하지 않음
+ * - querydsl 벌크 연산 등 이벤트가 없는 변경은 주기적으로 DB 와 맞춤 (member.team-stats.reconcile-interval-ms)
+ * - 다시 맞출 때는 커밋된 데이터만 읽음 (MemberCommitListener)
+ *   읽는 동안에는 회원을 바꾼 트랜잭션의 커밋을 막음(commitGate) -> 읽은 결과와 커밋 이벤트가 겹치거나 빠지지 않음
+ * - 조회는 팀별 스냅샷을 그대로 반환 (O(1))
+ */
+@Slf4j
+@Service
+public class TeamStatisticsService extends MemberCommitListener {
+
+	private final JPAQueryFactory queryFactory;
+	private final TeamRepository teamRepository;
+
+	private final Object reconcileLock = new Object();
+	private final Map<Long, TeamAggregate> aggregates = new HashMap<>();
+	private final Map<Long, TeamStats> snapshots = new ConcurrentHashMap<>();
+	// 회원을 바꾼 트랜잭션은 첫 변경(flush)부터 완료까지 읽기 락, reconcile 은 조회하는 동안 쓰기 락
+	// 커밋과 post-commit 이벤트가 모두 읽기 락 안에서 일어나므로 조회 결과에 있는 변경의 이벤트는 조회 전에 반영됨
+	private final ReentrantReadWriteLock commitGate = new ReentrantReadWriteLock();
+
+	public TeamStatisticsService(EntityManagerFactory emf, JPAQueryFactory queryFactory,
+		TeamRepository teamRepository, PlatformTransactionManager transactionManager) {
+		super(emf, transactionManager);
+		this.queryFactory = queryFactory;
+		this.teamRepository = teamRepository;
+	}
+
+	public TeamStats get(Long teamId) {
+		return snapshots.get(teamId);
+	}
+
+	public TeamStats getByTeamName(String teamName) {
+		List<Long> teamIds = teamRepository.findIdsByName(teamName);
+		return teamIds.isEmpty() ? null : snapshots.get(teamIds.get(0));
+	}
+
+	public Map<Long, TeamStats> getAll() {
+		return Collections.unmodifiableMap(snapshots);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(fixedDelayString = "${member.team-stats.reconcile-interval-ms:60000}",
+		initialDelayString = "${member.team-stats.reconcile-interval-ms:60000}")
+	public void reconcile() {
+		if (commitGate.getReadHoldCount() > 0) {
+			throw new IllegalStateException("cannot reconcile team statistics inside a transaction that changed members");
+		}
+		synchronized (reconcileLock) {
+			// 팀, 나이별 인원 수로 전체를 다시 계산
+			List<Tuple> rows;
+			commitGate.writeLock().lock();
+			try {
+				rows = readCommitted(() -> queryFactory
+					.select(member.team.id, member.age, member.count())
+					.from(member)
+					.where(member.team.isNotNull())
+					.groupBy(member.team.id, member.age)
+					.fetch());
+			} finally {
+				commitGate.writeLock().unlock();
+			}
+
+			Map<Long, TeamAggregate> loaded = new HashMap<>();
+			for (Tuple row : rows) {
+				loaded.computeIfAbsent(row.get(member.team.id), TeamAggregate::new)
+					.add(row.get(member.age), row.get(member.count()));
+			}
+
+			// 조회 이후에 커밋된 변경의 이벤트는 교체한 뒤에 반영됨 (apply 와 같은 락)
+			synchronized (this) {
+				aggregates.clear();
+				aggregates.putAll(loaded);
+				snapshots.keySet().retainAll(loaded.keySet());
+				loaded.values().forEach(aggregate -> snapshots.put(aggregate.teamId, aggregate.snapshot()));
+			}
+			log.debug("reconciled team statistics for {} teams", loaded.size());
+		}
+	}
+
+	// 트랜잭션에서 회원을 처음 바꿀 때 commitGate 읽기 락, 트랜잭션이 끝나면(post-commit 이벤트 이후) 해제
+	@EventListener
+	public void holdCommitGate(EntityChangeEvent event) {
+		if (event.getType() == EntityChangeEvent.Type.BULK || !event.isFor(Member.class)
+			|| !TransactionSynchronizationManager.isSynchronizationActive()
+			|| TransactionSynchronizationManager.hasResource(commitGate)) {
+			return;
+		}
+		commitGate.readLock().lock();
+		TransactionSynchronizationManager.bindResource(commitGate, Boolean.TRUE);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			// 같은 트랜잭션의 AFTER_COMPLETION 리스너(벌크 reconcile)보다 먼저 해제
+			@Override
+			public int getOrder() {
+				return Ordered.HIGHEST_PRECEDENCE;
+			}
+
+			@Override
+			public void afterCompletion(int status) {
+				TransactionSynchronizationManager.unbindResourceIfPossible(commitGate);
+				commitGate.readLock().unlock();
+			}
+		});
+	}
+
+	// 벌크 연산은 어떤 회원이 바뀌었는지 모르므로 다시 계산
+	// 청크는 각자 커밋되므로 호출한 트랜잭션이 끝난 뒤 다시 읽음 (트랜잭션 밖이면 바로)
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+	public void onEntityChange(EntityChangeEvent event) {
+		if (event.getType() == EntityChangeEvent.Type.BULK && event.isFor(Member.class)) {
+			reconcile();
+		}
+	}
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		if (event.getEntity() instanceof Member) {
+			Object[] state = event.getState();
+			apply(teamIdOf(event.getPersister(), state), ageOf(event.getPersister(), state), 1);
+		}
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		if (!(event.getEntity() instanceof Member)) {
+			return;
+		}
+		EntityPersister persister = event.getPersister();
+		Object[] oldState = event.getOldState();
+		if (oldState == null) {
+			// 분리된 엔티티 update 등 이전 값을 모르면 다음 reconcile 에 맡김
+			return;
+		}
+		Long oldTeamId = teamIdOf(persister, oldState);
+		Long newTeamId = teamIdOf(persister, event.getState());
+		int oldAge = ageOf(persister, oldState);
+		int newAge = ageOf(persister, event.getState());
+		if (oldAge == newAge && (oldTeamId == null ? newTeamId == null : oldTeamId.equals(newTeamId))) {
+			return;
+		}
+		apply(oldTeamId, oldAge, -1);
+		apply(newTeamId, newAge, 1);
+	}
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		if (event.getEntity() instanceof Member) {
+			Object[] state = event.getDeletedState();
+			apply(teamIdOf(event.getPersister(), state), ageOf(event.getPersister(), state), -1);
+		}
+	}
+
+	private synchronized void apply(Long teamId, int age, long delta) {
+		if (teamId == null) {
+			return;
+		}
+		TeamAggregate aggregate = aggregates.computeIfAbsent(teamId, TeamAggregate::new);
+		aggregate.add(age, delta);
+		if (aggregate.isEmpty()) {
+			aggregates.remove(teamId);
+			snapshots.remove(teamId);
+		} else {
+			snapshots.put(teamId, aggregate.snapshot());
+		}
+	}
+
+	private static Long teamIdOf(EntityPersister persister, Object[] state) {
+		Team memberTeam = (Team)state[persister.getEntityMetamodel().getPropertyIndex("team")];
+		return memberTeam == null ? null : memberTeam.getId();
+	}
+
+	private static int ageOf(EntityPersister persister, Object[] state) {
+		return (Integer)state[persister.getEntityMetamodel().getPropertyIndex("age")];
+	}
+
+	/**
+	 * 한 팀의 집계 (나이 -> 인원 수)
+	 */
+	static class TeamAggregate {
+		private final Long teamId;
+		private final TreeMap<Integer, Long> ageCounts = new TreeMap<>();
+		private long count;
+		private long ageSum;
+
+		TeamAggregate(Long teamId) {
+			this.teamId = teamId;
+		}
+
+		void add(int age, long delta) {
+			long ageCount = ageCounts.getOrDefault(age, 0L) + delta;
+			if (ageCount <= 0) {
+				ageCounts.remove(age);
+			} else {
+				ageCounts.put(age, ageCount);
+			}
+			count += delta;
+			ageSum += age * delta;
+		}
+
+		boolean isEmpty() {
+			return ageCounts.isEmpty();
+		}
+
+		TeamStats snapshot() {
+			return isEmpty()
+				? new TeamStats(teamId, 0, 0, null, null)
+				: new TeamStats(teamId, count, ageSum, ageCounts.firstKey(), ageCounts.lastKey());
+		}
+	}
+}
@@ -38,6 +38,7 @@ import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.QTeam;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.support.FastProjections;
 
 @SpringBootTest
 @Transactional
@@ -585,6 +586,42 @@ public class QuerydslBasicTest {
 		}
 	}
 
+	// 접근자 캐시 버전, Projections 와 같은 결과
+	@Test
+	void findDtoByFastProjections() {
+		QMember memberSub = new QMember("memberSub");
+
+		assertThat(queryFactory
+			.select(FastProjections.bean(MemberDto.class, member.username, member.age))
+			.from(member)
+			.fetch())
+			.isEqualTo(queryFactory
+				.select(Projections.bean(MemberDto.class, member.username, member.age))
+				.from(member)
+				.fetch());
+
+		assertThat(queryFactory
+			.select(FastProjections.fields(UserDto.class,
+				member.username.as("name"),
+				ExpressionUtils.as(JPAExpressions
+					.select(memberSub.age.max())
+					.from(memberSub), "age")))
+			.from(member)
+			.fetch())
+			.extracting("name", "age")
+			.containsExactlyInAnyOrder(tuple("member1", 40), tuple("member2", 40),
+				tuple("member3", 40), tuple("member4", 40));
+
+		assertThat(queryFactory
+			.select(FastProjections.constructor(UserDto.class, member.username, member.age))
+			.from(member)
+			.fetch())
+			.isEqualTo(queryFactory
+				.select(Projections.constructor(UserDto.class, member.username, member.age))
+				.from(member)
+				.fetch());
+	}
+
 	// 기존 constructor는 컴파일 시점에, 오류를 잡지 못함
 	// 단점: Q 파일이 생성됨, 아키텍쳐적으로, DTO가 QueryDSL에 의존하게됨
 	@Test
@@ -0,0 +1,53 @@
+package study.querydsl.config;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ReplicaRoutingDataSourceTest {
+
+	DataSource primary = mock(DataSource.class);
+	DataSource replica = mock(DataSource.class);
+	Counter fallback = new SimpleMeterRegistry().counter("fallback");
+	ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, fallback);
+
+	@AfterEach
+	void tearDown() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+	}
+
+	@Test
+	void routeByReadOnly() throws Exception {
+		Connection primaryConnection = mock(Connection.class);
+		Connection replicaConnection = mock(Connection.class);
+		when(primary.getConnection()).thenReturn(primaryConnection);
+		when(replica.getConnection()).thenReturn(replicaConnection);
+
+		assertThat(routing.getConnection()).isSameAs(primaryConnection);
+
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		assertThat(routing.getConnection()).isSameAs(replicaConnection);
+	}
+
+	@Test
+	void fallbackToPrimaryWhenReplicaExhausted() throws Exception {
+		Connection primaryConnection = mock(Connection.class);
+		when(primary.getConnection()).thenReturn(primaryConnection);
+		when(replica.getConnection()).thenThrow(new SQLTransientConnectionException("replica - timeout"));
+
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		assertThat(routing.getConnection()).isSameAs(primaryConnection);
+		assertThat(fallback.count()).isEqualTo(1);
+	}
+}
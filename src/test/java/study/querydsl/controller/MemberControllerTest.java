@@ -0,0 +1,36 @@
+package study.querydsl.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import study.querydsl.dto.MemberCursor;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberControllerTest {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Test
+	void cursorPageRejectsBadInput() throws Exception {
+		mockMvc.perform(get("/v4/members").param("size", "0")).andExpect(status().isBadRequest());
+		mockMvc.perform(get("/v4/members").param("size", "101")).andExpect(status().isBadRequest());
+		mockMvc.perform(get("/v4/members").param("cursor", "not-a-cursor")).andExpect(status().isBadRequest());
+
+		mockMvc.perform(get("/v4/members").param("size", "100")
+			.param("cursor", new MemberCursor(10, 1L).encode())).andExpect(status().isOk());
+	}
+
+	@Test
+	void hybridSearch() throws Exception {
+		mockMvc.perform(get("/v5/members").param("teamName", "teamA").param("ageGoe", "20"))
+			.andExpect(status().isOk());
+	}
+}
@@ -0,0 +1,118 @@
+package study.querydsl.controller;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SearchBulkheadsTest {
+
+	MockEnvironment environment = new MockEnvironment()
+		.withProperty("member.async.default.pool-size", "1")
+		.withProperty("member.async.default.queue-capacity", "1")
+		.withProperty("member.async.slow.timeout", "50ms");
+	SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+	SearchBulkheads bulkheads = new SearchBulkheads(environment, meterRegistry, transactionManager);
+
+	@AfterEach
+	void tearDown() {
+		bulkheads.destroy();
+	}
+
+	@Test
+	void rejectWhenFull() {
+		CountDownLatch latch = new CountDownLatch(1);
+		CompletableFuture<String> running = bulkheads.submit("v1", () -> await(latch));
+		CompletableFuture<String> queued = bulkheads.submit("v1", () -> await(latch));
+
+		// 스레드 1 + 대기열 1 이 차면 바로 503
+		assertThatThrownBy(() -> bulkheads.submit("v1", () -> "rejected"))
+			.isInstanceOf(ResponseStatusException.class)
+			.extracting(e -> ((ResponseStatusException)e).getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		assertThat(meterRegistry.counter("querydsl.bulkhead.rejected", "family", "v1").count()).isEqualTo(1);
+
+		// 다른 그룹은 영향 없음
+		assertThat(bulkheads.submit("v2", () -> "ok").join()).isEqualTo("ok");
+
+		latch.countDown();
+		assertThat(running.join()).isEqualTo("done");
+		assertThat(queued.join()).isEqualTo("done");
+	}
+
+	@Test
+	void timeout() {
+		CountDownLatch latch = new CountDownLatch(1);
+		CompletableFuture<String> future = bulkheads.submit("slow", () -> await(latch));
+
+		assertThatThrownBy(future::join)
+			.isInstanceOf(CompletionException.class)
+			.hasCauseInstanceOf(ResponseStatusException.class);
+		latch.countDown();
+	}
+
+	// 쿼리 제한 시간은 그룹의 timeout 을 준 readOnly 트랜잭션으로 (초 단위 올림)
+	@Test
+	void runInReadOnlyTransactionWithTimeout() {
+		ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+
+		assertThat(bulkheads.submit("slow", () -> "ok").join()).isEqualTo("ok");
+		assertThat(bulkheads.submit("v1", () -> "ok").join()).isEqualTo("ok");
+
+		verify(transactionManager, times(2)).getTransaction(definition.capture());
+		assertThat(definition.getAllValues()).extracting(TransactionDefinition::getTimeout).containsExactly(1, 5);
+		assertThat(definition.getAllValues()).allMatch(TransactionDefinition::isReadOnly);
+	}
+
+	@Test
+	void timeoutCancelsTask() throws Exception {
+		CountDownLatch never = new CountDownLatch(1);
+		CountDownLatch interrupted = new CountDownLatch(1);
+		AtomicBoolean queuedRan = new AtomicBoolean();
+		CompletableFuture<String> running = bulkheads.submit("slow", () -> {
+			try {
+				never.await();
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+			}
+			return "done";
+		});
+		CompletableFuture<String> queued = bulkheads.submit("slow", () -> {
+			queuedRan.set(true);
+			return "done";
+		});
+
+		assertThatThrownBy(running::join).hasCauseInstanceOf(ResponseStatusException.class);
+		assertThatThrownBy(queued::join).hasCauseInstanceOf(ResponseStatusException.class);
+		assertThat(meterRegistry.counter("querydsl.bulkhead.timeout", "family", "slow").count()).isEqualTo(2);
+
+		// 실행 중인 작업은 인터럽트, 대기 중인 작업은 실행되지 않고 자리가 비워짐
+		assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+		assertThat(bulkheads.submit("slow", () -> "ok").join()).isEqualTo("ok");
+		assertThat(queuedRan).isFalse();
+	}
+
+	private static String await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return "done";
+	}
+}
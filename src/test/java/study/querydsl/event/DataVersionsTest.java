@@ -0,0 +1,42 @@
+package study.querydsl.event;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Hello;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+class DataVersionsTest {
+
+	DataVersions dataVersions = new DataVersions();
+
+	@Test
+	void etagChangesOnWrite() {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("teamA");
+		MemberSearchCondition blank = new MemberSearchCondition();
+		blank.setUsername("");
+
+		String etag = dataVersions.etag("v1", condition.normalize());
+		assertThat(dataVersions.etag("v1", condition.normalize())).isEqualTo(etag);
+		assertThat(dataVersions.etag("v2", condition.normalize())).isNotEqualTo(etag);
+		// 빈 문자열 조건은 조건 없음과 같은 ETag
+		assertThat(dataVersions.etag("v1", blank.normalize()))
+			.isEqualTo(dataVersions.etag("v1", new MemberSearchCondition().normalize()));
+
+		dataVersions.onEntityChange(new EntityChangeEvent(new Hello(), EntityChangeEvent.Type.PERSIST));
+		assertThat(dataVersions.etag("v1", condition.normalize())).isEqualTo(etag);
+
+		dataVersions.onEntityChange(new EntityChangeEvent(new Member("member1", 10), EntityChangeEvent.Type.PERSIST));
+		assertThat(dataVersions.getMemberVersion()).isEqualTo(1);
+		String memberChanged = dataVersions.etag("v1", condition.normalize());
+		assertThat(memberChanged).isNotEqualTo(etag);
+
+		dataVersions.onEntityChange(EntityChangeEvent.bulk(Team.class));
+		assertThat(dataVersions.getTeamVersion()).isEqualTo(1);
+		assertThat(dataVersions.etag("v1", condition.normalize())).isNotEqualTo(memberChanged);
+	}
+}
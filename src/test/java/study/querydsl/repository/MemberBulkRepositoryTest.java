@@ -0,0 +1,115 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.*;
+import static study.querydsl.entity.QMember.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.BulkOptions;
+import study.querydsl.repository.support.BulkProgress;
+
+/**
+ * 청크마다 커밋하므로 테스트 트랜잭션 없이 데이터를 커밋하고 끝나면 지움
+ */
+@SpringBootTest
+class MemberBulkRepositoryTest {
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	MemberBulkRepository memberBulkRepository;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	TransactionTemplate tx;
+	JPAQueryFactory queryFactory;
+	Team team;
+
+	@BeforeEach
+	void before() {
+		tx = new TransactionTemplate(transactionManager);
+		queryFactory = new JPAQueryFactory(em);
+		tx.executeWithoutResult(status -> {
+			team = new Team("bulkTeam");
+			em.persist(team);
+			// 10 살 단위 나이 10 ~ 100, 조건에 맞는 회원 사이에 맞지 않는 회원이 끼어 있음
+			for (int i = 1; i <= 10; i++) {
+				em.persist(new Member("member" + i, i * 10, team));
+			}
+		});
+	}
+
+	@AfterEach
+	void cleanUp() {
+		tx.executeWithoutResult(status -> {
+			queryFactory.delete(member).where(inTeam()).execute();
+			em.remove(em.find(Team.class, team.getId()));
+		});
+	}
+
+	@Test
+	void bulkUpdateByChunk() {
+		List<BulkProgress> progresses = new ArrayList<>();
+		BulkProgress result = memberBulkRepository.update(member.age.lt(28).and(inTeam()),
+			update -> update.set(member.username, "비회원"),
+			new BulkOptions(1, Duration.ZERO, progresses::add));
+
+		assertThat(result.getAffectedRows()).isEqualTo(2);
+		assertThat(result.isDone()).isTrue();
+		assertThat(progresses).hasSize(2);
+		assertThat(tx.execute(status -> queryFactory.select(member.username).from(member)
+			.where(inTeam(), member.age.lt(28)).fetch())).containsOnly("비회원");
+	}
+
+	@Test
+	void bulkDeleteByChunk() {
+		BulkProgress result = memberBulkRepository.delete(member.age.gt(78).and(inTeam()), BulkOptions.of(2));
+
+		assertThat(result.getAffectedRows()).isEqualTo(3);
+		assertThat(result.getCompletedChunks()).isEqualTo(2);
+		assertThat(tx.execute(status -> queryFactory.selectFrom(member).where(inTeam()).fetchCount())).isEqualTo(7);
+	}
+
+	// 조건에 맞는 id 사이가 멀어도 청크는 맞는 행 수만큼만
+	@Test
+	void sparseIdsDoNotCreateEmptyChunks() {
+		BulkProgress result = memberBulkRepository.update(
+			member.age.in(10, 50, 100).and(inTeam()),
+			update -> update.set(member.age, member.age.add(1)),
+			BulkOptions.of(1));
+
+		assertThat(result.getAffectedRows()).isEqualTo(3);
+		assertThat(result.getCompletedChunks()).isEqualTo(3);
+		assertThat(result.getTotalChunks()).isEqualTo(3);
+	}
+
+	@Test
+	void rejectInsideTransaction() {
+		assertThatThrownBy(() -> tx.executeWithoutResult(status ->
+			memberBulkRepository.delete(inTeam(), BulkOptions.of(2))))
+			.isInstanceOf(IllegalStateException.class);
+	}
+
+	private Predicate inTeam() {
+		return member.team.id.eq(team.getId());
+	}
+}
@@ -3,6 +3,7 @@ package study.querydsl.repository;
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Arrays;
 import java.util.List;
 
 import javax.persistence.EntityManager;
@@ -12,14 +13,23 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.querydsl.jpa.impl.JPAQueryFactory;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.UsernameMatch;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.support.QueryPlanInspector;
+import study.querydsl.repository.support.StatementBudget;
+import study.querydsl.repository.support.QueryPlanInspector.QueryPlan;
 
 @SpringBootTest
 @Transactional
@@ -31,6 +41,18 @@ class MemberJpaRepositoryTest {
 	@Autowired
 	MemberJpaRepository memberJpaRepository;
 
+	@Autowired
+	QueryPlanInspector queryPlanInspector;
+
+	@Autowired
+	MemberHybridExecutor memberHybridExecutor;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
 	@Test
 	void basicTest() {
 		Member member = new Member("member1", 10);
@@ -114,4 +136,198 @@ class MemberJpaRepositoryTest {
 		List<MemberTeamDto> result = memberJpaRepository.search(condition);
 		assertThat(result).extracting("username").containsExactly("member4");
 	}
-}
\ No newline at end of file
+
+	@Test
+	void searchAllShapes() {
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 30, teamB));
+		em.persist(new Member("member4", 40, teamB));
+
+		// 16가지 조건 조합 모두 템플릿으로 조회하고 BooleanBuilder 쿼리와 같은 결과
+		for (int shape = 0; shape < MemberSearchShape.SHAPE_COUNT; shape++) {
+			MemberSearchCondition condition = new MemberSearchCondition();
+			if ((shape & MemberSearchShape.USERNAME) != 0) {
+				condition.setUsername("member3");
+			}
+			if ((shape & MemberSearchShape.TEAM_NAME) != 0) {
+				condition.setTeamName("teamB");
+			}
+			if ((shape & MemberSearchShape.AGE_GOE) != 0) {
+				condition.setAgeGoe(20);
+			}
+			if ((shape & MemberSearchShape.AGE_LOE) != 0) {
+				condition.setAgeLoe(30);
+			}
+			assertThat(MemberSearchShape.shapeOf(condition)).isEqualTo(shape);
+			assertThat(MemberSearchTemplate.supports(condition)).isTrue();
+			assertThat(MemberSearchTemplate.bindings(shape, condition)).hasSize(Integer.bitCount(shape));
+			assertThat(memberJpaRepository.search(condition))
+				.containsExactlyInAnyOrderElementsOf(memberJpaRepository.searchByBuilder(condition));
+		}
+	}
+
+	@Test
+	void explainAllShapes() {
+		List<QueryPlan> plans = queryPlanInspector.explainAll();
+		assertThat(plans).hasSize(MemberSearchShape.SHAPE_COUNT);
+
+		// 조건 없음은 전체 조회라 표시하지 않음, username 조건은 인덱스 사용
+		assertThat(plans.get(0).isFullScan()).isFalse();
+		QueryPlan username = plans.get(MemberSearchShape.USERNAME);
+		assertThat(username.isFullScan()).isFalse();
+		assertThat(username.getPlan()).containsIgnoringCase("idx_member_username");
+	}
+
+	@Test
+	void statementBudgetDetectsLazyLoads() {
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamB));
+		em.flush();
+		em.clear();
+		em.getEntityManagerFactory().getCache().evictAll();
+
+		try (StatementBudget budget = StatementBudget.open("searchMember", 10, false)) {
+			List<Member> members = memberJpaRepository.searchMember(new MemberSearchCondition());
+			members.forEach(m -> m.getTeam().getName());
+
+			// 회원 조회 1 + 팀 지연 로딩 2
+			assertThat(budget.getStatements()).isEqualTo(3);
+			assertThat(budget.getLazyLoads()).containsEntry("Member.team", 2);
+		}
+
+		em.clear();
+		em.getEntityManagerFactory().getCache().evictAll();
+		assertThatThrownBy(() -> {
+			try (StatementBudget budget = StatementBudget.open("searchMember", 1, true)) {
+				memberJpaRepository.searchMember(new MemberSearchCondition())
+					.forEach(m -> m.getTeam().getName());
+			}
+		}).hasMessageContaining("Member.team");
+	}
+
+	@Test
+	void searchMemberFetchPlans() {
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamB));
+		em.flush();
+
+		// NONE, BATCH_FETCH 는 회원 조회 + 팀을 in 쿼리 1번 (Team @BatchSize), 조인 방식은 1번
+		assertStatements(MemberFetchPlan.NONE, 2);
+		assertStatements(MemberFetchPlan.FETCH_JOIN, 1);
+		assertStatements(MemberFetchPlan.ENTITY_GRAPH, 1);
+		assertStatements(MemberFetchPlan.BATCH_FETCH, 2);
+	}
+
+	// 팀 통계, 캐시는 커밋 이후 반영되므로 테스트 트랜잭션 없이 데이터를 커밋하고 끝나면 지움
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void hybridSearchInMemoryAndSql() {
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		List<Team> teams = tx.execute(status -> {
+			Team teamA = new Team("hybridTeamA");
+			Team teamB = new Team("hybridTeamB");
+			em.persist(teamA);
+			em.persist(teamB);
+			em.persist(new Member("member1", 10, teamA));
+			em.persist(new Member("member2", 20, teamA));
+			em.persist(new Member("member3", 30, teamB));
+			return Arrays.asList(teamA, teamB);
+		});
+		try {
+			MemberSearchCondition condition = new MemberSearchCondition();
+			condition.setTeamName("hybridTeamA");
+			condition.setAgeGoe(20);
+			double memory = meterRegistry.counter("querydsl.hybrid", "mode", "memory").count();
+			double sql = meterRegistry.counter("querydsl.hybrid", "mode", "sql").count();
+
+			// 팀 조건이 있고 팀이 작으면 메모리, 같은 결과
+			assertThat(memberHybridExecutor.search(condition)).extracting("username").containsExactly("member2");
+			assertThat(memberHybridExecutor.search(condition))
+				.containsExactlyElementsOf(memberJpaRepository.search(condition));
+			assertThat(meterRegistry.counter("querydsl.hybrid", "mode", "memory").count()).isEqualTo(memory + 2);
+
+			// username PREFIX / CONTAINS 도 리포지토리와 같은 결과
+			MemberSearchCondition contains = new MemberSearchCondition();
+			contains.setTeamName("hybridTeamA");
+			contains.setUsername("ember");
+			contains.setUsernameMatch(UsernameMatch.CONTAINS);
+			assertThat(memberHybridExecutor.search(contains)).extracting("username")
+				.containsExactly("member1", "member2");
+			assertThat(memberHybridExecutor.search(contains))
+				.containsExactlyInAnyOrderElementsOf(memberJpaRepository.search(contains));
+
+			// 쓰기 트랜잭션 안에서는 커밋 전 변경이 캐시에 들어가지 않도록 SQL
+			tx.executeWithoutResult(status -> {
+				em.persist(new Member("member4", 40, em.find(Team.class, teams.get(0).getId())));
+				assertThat(memberHybridExecutor.search(condition)).extracting("username")
+					.containsExactly("member2", "member4");
+				status.setRollbackOnly();
+			});
+			assertThat(meterRegistry.counter("querydsl.hybrid", "mode", "sql").count()).isEqualTo(sql + 1);
+			assertThat(memberHybridExecutor.search(condition)).extracting("username").containsExactly("member2");
+
+			// 팀 조건이 없으면 SQL
+			condition.setTeamName(null);
+			condition.setUsernames(Arrays.asList("member2", "member3"));
+			assertThat(memberHybridExecutor.search(condition)).extracting("username")
+				.containsExactly("member2", "member3");
+			assertThat(meterRegistry.counter("querydsl.hybrid", "mode", "sql").count()).isEqualTo(sql + 2);
+		} finally {
+			tx.executeWithoutResult(status -> {
+				for (Team team : teams) {
+					em.createQuery("select m from Member m where m.team.id = :teamId", Member.class)
+						.setParameter("teamId", team.getId())
+						.getResultList()
+						.forEach(em::remove);
+					em.remove(em.find(Team.class, team.getId()));
+				}
+			});
+		}
+	}
+
+	@Test
+	void hybridSearchSplitsInLists() {
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		Team teamC = new Team("teamC");
+		em.persist(teamA);
+		em.persist(teamB);
+		em.persist(teamC);
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamB));
+		em.persist(new Member("member3", 30, teamC));
+		em.persist(new Member("member4", 40));
+		em.flush();
+
+		// chunk-size 2 (test application.yml) 이므로 나눠서 조회한 결과를 id 순으로 합침
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamIds(Arrays.asList(teamC.getId(), teamA.getId(), teamB.getId()));
+		assertThat(memberHybridExecutor.search(condition)).extracting("username")
+			.containsExactly("member1", "member2", "member3");
+	}
+
+	private void assertStatements(MemberFetchPlan fetchPlan, int expected) {
+		em.clear();
+		// 팀 2차 캐시 적중으로 SQL 이 줄지 않도록 비움
+		em.getEntityManagerFactory().getCache().evictAll();
+		try (StatementBudget budget = StatementBudget.open(fetchPlan.name(), expected, true)) {
+			List<Member> members = memberJpaRepository.searchMember(new MemberSearchCondition(), fetchPlan);
+			assertThat(members).extracting(m -> m.getTeam().getName()).containsExactlyInAnyOrder("teamA", "teamB");
+			assertThat(budget.getStatements()).isEqualTo(expected);
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import study.querydsl.dto.MemberColumns;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+@SpringBootTest
+@Transactional
+class MemberQueryRepositoryTest {
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	MemberQueryRepository memberQueryRepository;
+
+	Team teamA;
+
+	@BeforeEach
+	void before() {
+		teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 30, teamB));
+		em.persist(new Member("member4", 40, null));
+		// 컬럼 조회는 JDBC 로 직접 읽으므로 flush 필요
+		em.flush();
+	}
+
+	@Test
+	void searchColumns() {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setAgeGoe(20);
+
+		MemberColumns columns = memberQueryRepository.searchColumns(condition);
+
+		assertThat(columns.size()).isEqualTo(3);
+		List<Integer> ages = new ArrayList<>();
+		List<Long> teamIds = new ArrayList<>();
+		for (int i = 0; i < columns.size(); i++) {
+			ages.add(columns.age(i));
+			teamIds.add(columns.teamId(i));
+		}
+		assertThat(ages).containsExactlyInAnyOrder(20, 30, 40);
+		assertThat(teamIds).contains(MemberColumns.NO_TEAM);
+	}
+
+	@Test
+	void scanColumnsInChunks() {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("teamA");
+
+		List<Integer> chunkSizes = new ArrayList<>();
+		List<Long> teamIds = new ArrayList<>();
+		memberQueryRepository.scanColumns(condition, 1, chunk -> {
+			chunkSizes.add(chunk.size());
+			teamIds.add(chunk.teamId(0));
+		});
+
+		assertThat(chunkSizes).containsExactly(1, 1);
+		assertThat(teamIds).containsOnly(teamA.getId());
+	}
+}
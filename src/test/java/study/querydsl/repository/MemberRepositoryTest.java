@@ -2,7 +2,10 @@ package study.querydsl.repository;
 
 import static org.assertj.core.api.Assertions.*;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.persistence.EntityManager;
 
@@ -11,13 +14,25 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import study.querydsl.dto.MemberCursor;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.UsernameMatch;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.support.CountCache;
+import study.querydsl.repository.support.UsernameIndex;
 
 @Transactional
 @SpringBootTest
@@ -30,6 +45,21 @@ class MemberRepositoryTest {
 	@Autowired
 	MemberRepository memberRepository;
 
+	@Autowired
+	CountCache countCache;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Autowired
+	UsernameIndex usernameIndex;
+
+	@Autowired
+	TeamRepository teamRepository;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
 	@Test
 	void basicTest() {
 		Member member = new Member("member1", 10);
@@ -127,4 +157,208 @@ class MemberRepositoryTest {
 		}
 	}
 
-}
\ No newline at end of file
+
+	@Test
+	void searchByCursor() {
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 20, teamB));
+		em.persist(new Member("member4", 40, teamB));
+
+		MemberSearchCondition condition = new MemberSearchCondition();
+
+		Slice<MemberTeamDto> first = memberRepository.searchByCursor(condition, null, 2);
+		assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2");
+		assertThat(first.hasNext()).isTrue();
+
+		// 불투명 커서로 인코딩/디코딩해도 같은 위치에서 이어짐
+		MemberTeamDto last = first.getContent().get(1);
+		MemberCursor cursor = MemberCursor.decode(MemberCursor.from(last).encode());
+
+		Slice<MemberTeamDto> second = memberRepository.searchByCursor(condition, cursor, 2);
+		assertThat(second.getContent()).extracting("username").containsExactly("member3", "member4");
+		assertThat(second.hasNext()).isFalse();
+	}
+
+	@Test
+	void searchPageComplexCount() {
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 30, teamB));
+		em.persist(new Member("member4", 40, teamB));
+		em.persist(new Member("member5", 50));
+
+		// 팀 조건이 없으면 team join 없이 count, 팀이 없는 회원도 포함
+		MemberSearchCondition condition = new MemberSearchCondition();
+		Page<MemberTeamDto> result = memberRepository.searchPageComplex(condition, PageRequest.of(1, 2));
+		assertThat(result.getTotalElements()).isEqualTo(5);
+		assertThat(result.getContent()).hasSize(2);
+
+		condition.setTeamName("teamB");
+		Page<MemberTeamDto> teamResult = memberRepository.searchPageComplex(condition, PageRequest.of(0, 1));
+		assertThat(teamResult.getTotalElements()).isEqualTo(2);
+	}
+
+	@Test
+	void searchStream() {
+		Team teamA = new Team("teamA");
+		em.persist(teamA);
+
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 30, teamA));
+
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setAgeGoe(20);
+
+		try (Stream<MemberTeamDto> stream = memberRepository.searchStream(condition, 1)) {
+			List<String> usernames = stream.map(MemberTeamDto::getUsername).collect(Collectors.toList());
+			assertThat(usernames).containsExactlyInAnyOrder("member2", "member3");
+		}
+	}
+
+	@Test
+	void countCache() {
+		Team teamA = new Team("teamA");
+		em.persist(teamA);
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 30, teamA));
+
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("teamA");
+
+		assertThat(memberRepository.searchPageSimple(condition, PageRequest.of(0, 2)).getTotalElements()).isEqualTo(3);
+		long hitCount = countCache.stats().hitCount();
+
+		// 같은 조건의 다음 페이지는 캐시된 total 사용
+		assertThat(memberRepository.searchPageSimple(condition, PageRequest.of(1, 2)).getTotalElements()).isEqualTo(3);
+		assertThat(countCache.stats().hitCount()).isEqualTo(hitCount + 1);
+
+		// 회원 저장시 무효화
+		em.persist(new Member("member4", 40, teamA));
+		assertThat(memberRepository.searchPageSimple(condition, PageRequest.of(1, 2)).getTotalElements()).isEqualTo(4);
+	}
+
+	@Test
+	void repositoryMetrics() {
+		Team teamA = new Team("teamA");
+		em.persist(teamA);
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 30, teamA));
+
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("teamA");
+		condition.setAgeGoe(20);
+		// 레지스트리는 컨텍스트를 공유하는 다른 테스트와 같이 쓰므로 호출 전 값과의 차이로 확인
+		long countBefore = searchTimerCount();
+		double rowsBefore = searchRowsTotal();
+		memberRepository.searchPageComplex(condition, PageRequest.of(0, 1));
+
+		assertThat(searchTimerCount()).isEqualTo(countBefore + 1);
+		assertThat(searchRowsTotal()).isEqualTo(rowsBefore + 1);
+		assertThat(meterRegistry.find("querydsl.repository.page")
+			.tags("method", "MemberRepositoryImpl.searchPageComplex", "phase", "count").timer()).isNotNull();
+	}
+
+	private long searchTimerCount() {
+		Timer timer = meterRegistry.find("querydsl.repository")
+			.tags("method", "MemberRepositoryImpl.searchPageComplex", "shape", "teamName+ageGoe")
+			.timer();
+		return timer == null ? 0 : timer.count();
+	}
+
+	private double searchRowsTotal() {
+		DistributionSummary summary = meterRegistry.find("querydsl.repository.rows")
+			.tags("method", "MemberRepositoryImpl.searchPageComplex").summary();
+		return summary == null ? 0 : summary.totalAmount();
+	}
+
+	// 인덱스는 커밋 이후 반영되므로 테스트 트랜잭션 없이 데이터를 커밋하고 끝나면 지움
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void searchByUsernamePrefixAndContains() {
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		Team teamA = new Team("teamA");
+		List<Member> members = tx.execute(status -> {
+			teamRepository.save(teamA);
+			return memberRepository.saveAll(Arrays.asList(new Member("alice", 10, teamA),
+				new Member("alicia", 20, teamA), new Member("malice", 30, teamA), new Member("bob", 40, teamA)));
+		});
+		try {
+			assertThat(usernameIndex.find("ali", UsernameMatch.PREFIX))
+				.containsExactlyInAnyOrder(members.get(0).getId(), members.get(1).getId());
+
+			MemberSearchCondition condition = new MemberSearchCondition();
+			condition.setUsername("ali");
+			condition.setUsernameMatch(UsernameMatch.PREFIX);
+			assertThat(memberRepository.searchPageSimple(condition, PageRequest.of(0, 10)).getContent())
+				.extracting("username").containsExactlyInAnyOrder("alice", "alicia");
+
+			condition.setUsernameMatch(UsernameMatch.CONTAINS);
+			assertThat(memberRepository.search(condition))
+				.extracting("username").containsExactlyInAnyOrder("alice", "alicia", "malice");
+
+			condition.setUsername("lic");
+			condition.setAgeGoe(20);
+			Page<MemberTeamDto> page = memberRepository.searchPageComplex(condition, PageRequest.of(0, 1));
+			assertThat(page.getTotalElements()).isEqualTo(2);
+		} finally {
+			tx.executeWithoutResult(status -> {
+				memberRepository.deleteAll(members);
+				teamRepository.deleteById(teamA.getId());
+			});
+		}
+	}
+
+	@Test
+	void searchByMultiValueFilters() {
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		Team teamC = new Team("teamC");
+		em.persist(teamA);
+		em.persist(teamB);
+		em.persist(teamC);
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamB));
+		em.persist(new Member("member3", 30, teamC));
+		em.persist(new Member("member4", 40, teamC));
+		em.persist(new Member("member5", 50, null));
+
+		// chunk-size 2 (test application.yml) 이므로 나눠서 조회한 결과를 합침
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setUsernames(Arrays.asList("member4", "member1", "member3", "member5", "member1"));
+		assertThat(memberRepository.search(condition))
+			.extracting("username").containsExactlyInAnyOrder("member1", "member3", "member4", "member5");
+
+		condition.setTeamNames(Arrays.asList("teamC", "teamA", "teamB"));
+		Page<MemberTeamDto> page = memberRepository.searchPageSimple(condition, PageRequest.of(1, 2));
+		assertThat(page.getTotalElements()).isEqualTo(3);
+		assertThat(page.getContent()).extracting("username").containsExactly("member4");
+
+		MemberSearchCondition byTeamIds = new MemberSearchCondition();
+		byTeamIds.setTeamIds(Arrays.asList(teamC.getId(), teamB.getId(), teamA.getId()));
+		byTeamIds.setAgeGoe(20);
+		page = memberRepository.searchPageComplex(byTeamIds, PageRequest.of(0, 2));
+		assertThat(page.getTotalElements()).isEqualTo(3);
+		assertThat(page.getContent()).extracting("username").containsExactly("member2", "member3");
+
+		// 나누지 않는 길이여도 같은 id 순
+		byTeamIds.setTeamIds(Arrays.asList(teamC.getId(), teamB.getId()));
+		assertThat(memberRepository.searchPageSimple(byTeamIds, PageRequest.of(0, 3)).getContent())
+			.extracting("username").containsExactly("member2", "member3", "member4");
+		assertThat(memberRepository.searchPageComplex(byTeamIds, PageRequest.of(0, 3)).getContent())
+			.extracting("username").containsExactly("member2", "member3", "member4");
+	}
+}
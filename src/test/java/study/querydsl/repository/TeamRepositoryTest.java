@@ -0,0 +1,91 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.*;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.TeamCacheEvictor;
+
+/**
+ * 쿼리 캐시는 커밋 전 변경이 있는 테이블을 캐시하지 않으므로 테스트 트랜잭션 없이 데이터를 커밋하고 끝나면 지움
+ */
+@SpringBootTest
+class TeamRepositoryTest {
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	EntityManagerFactory emf;
+
+	@Autowired
+	TeamRepository teamRepository;
+
+	@Autowired
+	TeamCacheEvictor teamCacheEvictor;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	TransactionTemplate tx;
+	Statistics statistics;
+	Team team;
+
+	@BeforeEach
+	void before() {
+		tx = new TransactionTemplate(transactionManager);
+		statistics = emf.unwrap(SessionFactory.class).getStatistics();
+		team = teamRepository.save(new Team("cacheTeam"));
+		teamCacheEvictor.evictAll();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		teamRepository.deleteById(team.getId());
+	}
+
+	// 통계는 다른 테스트와 공유하므로 호출 전 값과의 차이로 확인
+	@Test
+	void teamNameLookupHitsQueryCache() {
+		assertThat(teamRepository.findIdsByName("cacheTeam")).containsExactly(team.getId());
+		CacheRegionStatistics region = statistics.getQueryRegionStatistics(Team.NAME_QUERY_REGION);
+		long hits = region.getHitCount();
+		long misses = region.getMissCount();
+
+		assertThat(teamRepository.findIdsByName("cacheTeam")).containsExactly(team.getId());
+		assertThat(region.getHitCount()).isEqualTo(hits + 1);
+		assertThat(region.getMissCount()).isEqualTo(misses);
+
+		// 팀을 바꾸면 리전을 비우므로 다시 miss
+		tx.executeWithoutResult(status -> em.find(Team.class, team.getId()).setName("cacheTeam2"));
+		assertThat(teamRepository.findIdsByName("cacheTeam")).isEmpty();
+		assertThat(region.getMissCount()).isEqualTo(misses + 1);
+	}
+
+	@Test
+	void teamLoadHitsSecondLevelCache() {
+		CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(Team.CACHE_REGION);
+		long hits = region.getHitCount();
+		long misses = region.getMissCount();
+
+		tx.executeWithoutResult(status -> em.find(Team.class, team.getId()));
+		assertThat(region.getMissCount()).isEqualTo(misses + 1);
+
+		tx.executeWithoutResult(status -> em.find(Team.class, team.getId()));
+		assertThat(region.getHitCount()).isEqualTo(hits + 1);
+		assertThat(region.getMissCount()).isEqualTo(misses + 1);
+	}
+}
@@ -0,0 +1,57 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import study.querydsl.dto.MemberSearchCondition;
+
+class InListChunkerTest {
+
+	InListChunker chunker = new InListChunker(2);
+
+	@Test
+	void noSplitWithinChunkSize() {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setUsernames(Arrays.asList("member2", "member1"));
+
+		List<MemberSearchCondition> chunks = chunker.split(condition);
+
+		assertThat(chunks).containsExactly(condition);
+	}
+
+	@Test
+	void splitDistinctValuesByChunkSize() {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setAgeGoe(10);
+		condition.setUsernames(Arrays.asList("member3", "member1", "member2", "member1"));
+		condition.setTeamIds(Arrays.asList(3L, 2L, 1L));
+
+		List<MemberSearchCondition> chunks = chunker.split(condition);
+
+		// usernames 2조각 x teamIds 2조각, 중복 제거 후 정렬된 값으로 나눔
+		assertThat(chunks).hasSize(4);
+		assertThat(chunks).extracting(MemberSearchCondition::getUsernames).containsExactly(
+			Arrays.asList("member1", "member2"), Arrays.asList("member1", "member2"),
+			Arrays.asList("member3"), Arrays.asList("member3"));
+		assertThat(chunks).extracting(MemberSearchCondition::getTeamIds).containsExactly(
+			Arrays.asList(1L, 2L), Arrays.asList(3L),
+			Arrays.asList(1L, 2L), Arrays.asList(3L));
+		assertThat(chunks).extracting(MemberSearchCondition::getAgeGoe).containsOnly(10);
+		// 원래 조건은 바꾸지 않음
+		assertThat(condition.getUsernames()).containsExactly("member3", "member1", "member2", "member1");
+	}
+
+	@Test
+	void mergeSortsAndPages() {
+		List<List<Integer>> chunks = Arrays.asList(Arrays.asList(1, 4, 7), Arrays.asList(2, 3, 8));
+
+		assertThat(InListChunker.merge(chunks, Comparator.naturalOrder(), 0, 3)).containsExactly(1, 2, 3);
+		assertThat(InListChunker.merge(chunks, Comparator.naturalOrder(), 3, 2)).containsExactly(4, 7);
+		assertThat(InListChunker.merge(chunks, Comparator.naturalOrder(), 6, 2)).isEmpty();
+	}
+}
@@ -0,0 +1,125 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+/**
+ * 스냅샷은 커밋된 변경만 반영하므로 테스트 트랜잭션 없이 데이터를 커밋하고 끝나면 지움
+ */
+@SpringBootTest(properties = "member.snapshot.enabled=true")
+class MemberSnapshotCountTest {
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	MemberSnapshot memberSnapshot;
+
+	@Autowired
+	MemberRepository memberRepository;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	Team team;
+
+	@AfterEach
+	void cleanUp() {
+		if (team == null) {
+			return;
+		}
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			em.createQuery("select m from Member m where m.team.id = :teamId", Member.class)
+				.setParameter("teamId", team.getId())
+				.getResultList()
+				.forEach(em::remove);
+			em.remove(em.find(Team.class, team.getId()));
+		});
+	}
+
+	@Test
+	void countWithDeltaAndRebuild() {
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		List<Member> members = tx.execute(status -> {
+			team = new Team("snapshotTeam");
+			em.persist(team);
+			List<Member> saved = Arrays.asList(new Member("member1", 10, team), new Member("member2", 20, team),
+				new Member("member3", 30, team));
+			saved.forEach(em::persist);
+			return saved;
+		});
+		memberSnapshot.rebuild();
+		assertThat(memberSnapshot.deltaSize()).isZero();
+		assertThat(memberSnapshot.count(condition(null, null))).isEqualTo(3);
+		assertThat(memberSnapshot.count(condition(20, null))).isEqualTo(2);
+
+		// 커밋된 저장, 나이 변경, 삭제는 post-commit 이벤트로 delta 에 반영
+		tx.executeWithoutResult(status -> {
+			em.persist(new Member("member4", 40, em.find(Team.class, team.getId())));
+			em.find(Member.class, members.get(0).getId()).setAge(50);
+			em.remove(em.find(Member.class, members.get(1).getId()));
+		});
+		assertThat(memberSnapshot.deltaSize()).isEqualTo(3);
+		assertThat(memberSnapshot.count(condition(null, null))).isEqualTo(3);
+		assertThat(memberSnapshot.count(condition(20, null))).isEqualTo(3);
+		assertThat(memberSnapshot.count(condition(null, 30))).isEqualTo(1);
+
+		// 다시 만들면 delta 가 비고 결과는 같음
+		memberSnapshot.rebuild();
+		assertThat(memberSnapshot.deltaSize()).isZero();
+		assertThat(memberSnapshot.count(condition(null, null))).isEqualTo(3);
+		assertThat(memberSnapshot.count(condition(20, null))).isEqualTo(3);
+		assertThat(memberSnapshot.count(condition(null, 30))).isEqualTo(1);
+	}
+
+	@Test
+	void writeTransactionCountsFromDatabase() {
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		tx.executeWithoutResult(status -> {
+			team = new Team("snapshotTeam");
+			em.persist(team);
+			em.persist(new Member("member1", 10, team));
+		});
+		memberSnapshot.rebuild();
+		MemberSearchCondition condition = condition(null, null);
+		assertThat(memberSnapshot.supports(condition)).isTrue();
+
+		// 쓰기 트랜잭션의 커밋 전 변경은 컨텐츠에 보이므로 total 도 DB 에서
+		tx.executeWithoutResult(status -> {
+			em.persist(new Member("member2", 20, em.find(Team.class, team.getId())));
+			assertThat(memberSnapshot.supports(condition)).isFalse();
+			Page<MemberTeamDto> page = memberRepository.searchPageSimple(condition, PageRequest.of(0, 10));
+			assertThat(page.getContent()).hasSize(2);
+			assertThat(page.getTotalElements()).isEqualTo(2);
+			status.setRollbackOnly();
+		});
+		assertThat(memberSnapshot.count(condition)).isEqualTo(1);
+	}
+
+	private static MemberSearchCondition condition(Integer ageGoe, Integer ageLoe) {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("snapshotTeam");
+		condition.setAgeGoe(ageGoe);
+		condition.setAgeLoe(ageLoe);
+		return condition;
+	}
+}
@@ -0,0 +1,66 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import study.querydsl.dto.MemberColumns;
+
+class MemberSnapshotTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void columnsSortedByAge() throws Exception {
+		MemberColumns columns = new MemberColumns(4);
+		columns.add(1L, 40, 10L);
+		columns.add(2L, 20, 10L);
+		columns.add(3L, 30, 11L);
+		columns.add(4L, 20, MemberColumns.NO_TEAM);
+		columns.add(5L, 10, 11L);
+
+		MemberSnapshot.Columns snapshot = MemberSnapshot.Columns.write(dir.resolve("snapshot.bin"), columns);
+		assertThat(snapshot.size()).isEqualTo(5);
+		assertThat(new int[] {snapshot.age(0), snapshot.age(1), snapshot.age(2), snapshot.age(3), snapshot.age(4)})
+			.containsExactly(10, 20, 20, 30, 40);
+		assertThat(snapshot.memberId(0)).isEqualTo(5L);
+		assertThat(snapshot.teamId(4)).isEqualTo(10L);
+
+		// ageGoe 20, ageLoe 30 -> 20, 20, 30
+		assertThat(snapshot.to(30) - snapshot.from(20)).isEqualTo(3);
+		assertThat(snapshot.to(null) - snapshot.from(null)).isEqualTo(5);
+		assertThat(snapshot.to(5) - snapshot.from(null)).isZero();
+		assertThat(snapshot.to(Integer.MAX_VALUE) - snapshot.from(41)).isZero();
+	}
+
+	@Test
+	void deltaReplacesById() {
+		MemberSnapshot.Delta delta = MemberSnapshot.Delta.EMPTY
+			.with(1L, new MemberSnapshot.Row(20, 10L))
+			.with(2L, new MemberSnapshot.Row(30, 10L))
+			.with(1L, new MemberSnapshot.Row(25, 11L))
+			.with(2L, null);
+
+		// 스냅샷에서 제외할 id 는 1, 2 이고 새 값은 1 만 (2 는 삭제)
+		assertThat(delta.changes).containsOnlyKeys(1L, 2L);
+		assertThat(delta.changes.get(1L).age).isEqualTo(25);
+		assertThat(delta.changes.get(2L)).isNull();
+		assertThat(delta.size()).isEqualTo(2);
+		assertThat(MemberSnapshot.Delta.EMPTY.isEmpty()).isTrue();
+
+		// 한 트랜잭션의 변경은 한번에 (이전 delta 는 그대로)
+		Map<Long, MemberSnapshot.Row> rows = new LinkedHashMap<>();
+		rows.put(2L, new MemberSnapshot.Row(35, 10L));
+		rows.put(3L, new MemberSnapshot.Row(40, 12L));
+		MemberSnapshot.Delta next = delta.withAll(rows);
+		assertThat(next.changes).containsOnlyKeys(1L, 2L, 3L);
+		assertThat(next.changes.get(2L).age).isEqualTo(35);
+		assertThat(delta.changes.get(2L)).isNull();
+	}
+}
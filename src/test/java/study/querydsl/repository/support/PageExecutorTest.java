@@ -0,0 +1,80 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PageExecutorTest {
+
+	EntityManager em = mock(EntityManager.class);
+	Session session = mock(Session.class);
+	PageExecutor pageExecutor = new PageExecutor(mock(PlatformTransactionManager.class),
+		new RepositoryMetrics(new SimpleMeterRegistry()), em, true, 1, 1);
+
+	@AfterEach
+	void tearDown() {
+		pageExecutor.destroy();
+		TransactionSynchronizationManager.setActualTransactionActive(false);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+	}
+
+	// 쓰기 트랜잭션 안이면 count 도 같은 스레드(같은 트랜잭션)에서
+	@Test
+	void sequentialInWriteTransaction() {
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		Thread caller = Thread.currentThread();
+		Thread[] countThread = new Thread[1];
+
+		Page<String> page = pageExecutor.getPage(PageRequest.of(0, 2), () -> List.of("a", "b"), () -> {
+			countThread[0] = Thread.currentThread();
+			return 3;
+		});
+
+		assertThat(page.getTotalElements()).isEqualTo(3);
+		assertThat(countThread[0]).isSameAs(caller);
+	}
+
+	// 마지막 페이지라 count 가 필요 없으면 실행 중인 count 쿼리를 취소
+	@Test
+	void cancelUnneededCount() throws Exception {
+		when(em.unwrap(Session.class)).thenReturn(session);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		Page<String> page = pageExecutor.getPage(PageRequest.of(0, 10), () -> {
+			await(started);
+			return List.of("a");
+		}, () -> {
+			started.countDown();
+			await(release);
+			return 100;
+		});
+
+		assertThat(page.getTotalElements()).isEqualTo(1);
+		verify(session, timeout(1000)).cancelQuery();
+		release.countDown();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
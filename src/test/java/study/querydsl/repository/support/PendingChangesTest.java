@@ -0,0 +1,50 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class PendingChangesTest {
+
+	PendingChanges<String> changes = new PendingChanges<>();
+	List<Long> applied = new ArrayList<>();
+
+	// 다시 만드는 동안 커밋된 변경만 교체할 때 넘김
+	@Test
+	void replayChangesDuringRebuild() {
+		changes.changed(1L, "before", () -> applied.add(1L));
+
+		Map<Long, String> replayed = new HashMap<>();
+		changes.rebuild(() -> {
+			changes.changed(2L, "member2", () -> applied.add(2L));
+			changes.changed(3L, null, () -> applied.add(3L));
+			return "built";
+		}, (built, pending) -> replayed.putAll(pending));
+
+		assertThat(applied).containsExactly(1L, 2L, 3L);
+		assertThat(replayed).containsOnlyKeys(2L, 3L).containsEntry(2L, "member2").containsEntry(3L, null);
+
+		// 교체 후에는 모으지 않음
+		changes.changed(4L, "after", () -> applied.add(4L));
+		Map<Long, String> next = new HashMap<>();
+		changes.rebuild(() -> "built", (built, pending) -> next.putAll(pending));
+		assertThat(next).isEmpty();
+	}
+
+	@Test
+	void stopCollectingWhenLoadFails() {
+		assertThatThrownBy(() -> changes.rebuild(() -> {
+			throw new IllegalStateException("load failed");
+		}, (built, pending) -> fail("replace after failed load"))).isInstanceOf(IllegalStateException.class);
+
+		Map<Long, String> replayed = new HashMap<>();
+		changes.changed(1L, "member1", () -> applied.add(1L));
+		changes.rebuild(() -> "built", (built, pending) -> replayed.putAll(pending));
+		assertThat(replayed).isEmpty();
+	}
+}
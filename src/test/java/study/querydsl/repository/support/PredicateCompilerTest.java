@@ -0,0 +1,74 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.*;
+import static study.querydsl.entity.QMember.*;
+import static study.querydsl.entity.QTeam.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.JPAExpressions;
+
+import study.querydsl.dto.MemberTeamDto;
+
+class PredicateCompilerTest {
+
+	static final Map<String, Function<MemberTeamDto, Object>> ACCESSORS = Map.of(
+		member.id.toString(), MemberTeamDto::getMemberId,
+		member.username.toString(), MemberTeamDto::getUsername,
+		member.age.toString(), MemberTeamDto::getAge,
+		team.id.toString(), MemberTeamDto::getTeamId,
+		team.name.toString(), MemberTeamDto::getTeamName);
+
+	List<MemberTeamDto> rows = Arrays.asList(
+		new MemberTeamDto(1L, "member1", 10, 1L, "teamA"),
+		new MemberTeamDto(2L, "member2", 20, 1L, "teamA"),
+		new MemberTeamDto(3L, "member3", 30, 2L, "teamB"),
+		new MemberTeamDto(4L, "member4", 40, null, null));
+
+	@Test
+	void evaluateLikeSql() {
+		assertThat(filter(team.name.eq("teamA").and(member.age.goe(20)))).containsExactly(2L);
+		assertThat(filter(member.age.between(15, 35).or(member.username.startsWith("member4"))))
+			.containsExactly(2L, 3L, 4L);
+		assertThat(filter(team.id.in(1L, 2L).and(member.username.contains("3")))).containsExactly(3L);
+		assertThat(filter(new BooleanBuilder())).containsExactly(1L, 2L, 3L, 4L);
+
+		// null 비교는 unknown -> not 을 씌워도 통과하지 않음
+		assertThat(filter(team.name.ne("teamA"))).containsExactly(3L);
+		assertThat(filter(team.name.eq("teamA").not())).containsExactly(3L);
+		assertThat(filter(team.name.isNull())).containsExactly(4L);
+	}
+
+	@Test
+	void unsupportedExpression() {
+		// 모르는 Path, 서브쿼리는 변환하지 않음
+		assertThatThrownBy(() -> PredicateCompiler.compile(member.team.isNotNull(), this::accessor))
+			.isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> PredicateCompiler.compile(
+			member.age.eq(JPAExpressions.select(member.age.max()).from(member)), this::accessor))
+			.isInstanceOf(UnsupportedOperationException.class);
+		// 타입이 다른 비교는 평가할 때 지원하지 않음
+		assertThatThrownBy(() -> filter(Expressions.predicate(Ops.LT, member.username, Expressions.constant(5))))
+			.isInstanceOf(UnsupportedOperationException.class);
+	}
+
+	private List<Long> filter(Predicate predicate) {
+		java.util.function.Predicate<MemberTeamDto> filter = PredicateCompiler.compile(predicate, this::accessor);
+		return rows.stream().filter(filter).map(MemberTeamDto::getMemberId).collect(Collectors.toList());
+	}
+
+	private Function<MemberTeamDto, Object> accessor(Path<?> path) {
+		return ACCESSORS.get(path.toString());
+	}
+}
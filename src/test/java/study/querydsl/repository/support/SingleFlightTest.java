@@ -0,0 +1,155 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import study.querydsl.dto.MemberTeamDto;
+
+class SingleFlightTest {
+
+	SingleFlight singleFlight = new SingleFlight(true, Duration.ofSeconds(5), new SimpleMeterRegistry());
+
+	@Test
+	void coalesceConcurrentCalls() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger calls = new AtomicInteger();
+
+		CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> execute("key", () -> {
+			calls.incrementAndGet();
+			started.countDown();
+			release.await();
+			return "result";
+		}));
+		started.await();
+
+		// 실행 중인 같은 키의 호출은 기다렸다가 같은 결과를 받음
+		CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> execute("key", () -> {
+			calls.incrementAndGet();
+			return "other";
+		}));
+		while (singleFlight.getCoalesced() == 0) {
+			Thread.onSpinWait();
+		}
+		release.countDown();
+
+		assertThat(leader.get()).isEqualTo("result");
+		assertThat(follower.get()).isEqualTo("result");
+		assertThat(calls.get()).isEqualTo(1);
+		assertThat(singleFlight.getExecuted()).isEqualTo(1);
+		assertThat(singleFlight.getInFlight()).isZero();
+
+		// 끝난 결과는 보관하지 않음
+		assertThat(execute("key", () -> "next")).isEqualTo("next");
+	}
+
+	@Test
+	void shareFailure() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> execute("key", () -> {
+			started.countDown();
+			release.await();
+			throw new IllegalStateException("db down");
+		}));
+		started.await();
+		CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> execute("key", () -> "other"));
+		while (singleFlight.getCoalesced() == 0) {
+			Thread.onSpinWait();
+		}
+		release.countDown();
+
+		assertThatThrownBy(leader::join).hasRootCauseMessage("db down");
+		assertThatThrownBy(follower::join).hasRootCauseMessage("db down");
+	}
+
+	@Test
+	void coalescedCallersGetOwnCopy() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		CompletableFuture<List<MemberTeamDto>> leader = CompletableFuture.supplyAsync(() -> executeList(() -> {
+			started.countDown();
+			release.await();
+			List<MemberTeamDto> result = new ArrayList<>();
+			result.add(new MemberTeamDto(1L, "member1", 10, 1L, "teamA"));
+			return result;
+		}));
+		started.await();
+		CompletableFuture<List<MemberTeamDto>> follower1 = CompletableFuture.supplyAsync(
+			() -> executeList(ArrayList::new));
+		CompletableFuture<List<MemberTeamDto>> follower2 = CompletableFuture.supplyAsync(
+			() -> executeList(ArrayList::new));
+		while (singleFlight.getCoalesced() < 2) {
+			Thread.onSpinWait();
+		}
+
+		release.countDown();
+		// 먼저 들어온 호출자가 결과를 바꿔도 기다린 호출의 결과는 그대로
+		leader.get().get(0).setUsername("changed");
+		leader.get().clear();
+
+		List<MemberTeamDto> result1 = follower1.get();
+		List<MemberTeamDto> result2 = follower2.get();
+		assertThat(result1).extracting(MemberTeamDto::getUsername).containsExactly("member1");
+		assertThat(result1.get(0)).isNotSameAs(result2.get(0));
+		assertThatThrownBy(() -> result1.add(result2.get(0))).isInstanceOf(UnsupportedOperationException.class);
+	}
+
+	@Test
+	void stopWaitingAfterTimeout() throws Exception {
+		SingleFlight shortWait = new SingleFlight(true, Duration.ofMillis(50), new SimpleMeterRegistry());
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> {
+			try {
+				return shortWait.execute("test", "key", () -> {
+					started.countDown();
+					release.await();
+					return "result";
+				});
+			} catch (Throwable e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		started.await();
+
+		// 먼저 들어온 호출이 끝나지 않으면 기다리지 않고 직접 조회
+		assertThat(shortWait.execute("test", "key", () -> "own")).isEqualTo("own");
+		assertThat(shortWait.getCoalesced()).isEqualTo(1);
+
+		release.countDown();
+		assertThat(leader.get()).isEqualTo("result");
+	}
+
+	private List<MemberTeamDto> executeList(SingleFlight.Call<List<MemberTeamDto>> call) {
+		try {
+			return singleFlight.execute("test", "list", call);
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private String execute(String key, SingleFlight.Call<String> call) {
+		try {
+			return singleFlight.execute("test", key, call);
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
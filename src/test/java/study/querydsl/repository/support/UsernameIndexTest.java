@@ -0,0 +1,39 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class UsernameIndexTest {
+
+	UsernameIndex.Entries entries = new UsernameIndex.Entries();
+
+	@Test
+	void findByPrefixAndContains() {
+		entries.put(1L, "member1");
+		entries.put(2L, "member2");
+		entries.put(3L, "member10");
+		entries.put(4L, "remember");
+
+		assertThat(entries.findByPrefix("member1", 10)).containsExactlyInAnyOrder(1L, 3L);
+		assertThat(entries.findByPrefix("x", 10)).isEmpty();
+		assertThat(entries.findByContains("member", 10)).containsExactlyInAnyOrder(1L, 2L, 3L, 4L);
+		assertThat(entries.findByContains("ber1", 10)).containsExactlyInAnyOrder(1L, 3L);
+		// 3글자 미만은 전체 확인
+		assertThat(entries.findByContains("r2", 10)).containsExactly(2L);
+		// limit 까지만
+		assertThat(entries.findByContains("mem", 2)).hasSize(2);
+	}
+
+	@Test
+	void updateAndRemove() {
+		entries.put(1L, "member1");
+		entries.put(1L, "renamed");
+		assertThat(entries.findByPrefix("member", 10)).isEmpty();
+		assertThat(entries.findByContains("name", 10)).containsExactly(1L);
+
+		entries.remove(1L);
+		assertThat(entries.findByContains("name", 10)).isEmpty();
+		assertThat(entries.size()).isZero();
+	}
+}
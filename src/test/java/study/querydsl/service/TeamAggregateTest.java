@@ -0,0 +1,37 @@
+package study.querydsl.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import study.querydsl.dto.TeamStats;
+import study.querydsl.service.TeamStatisticsService.TeamAggregate;
+
+class TeamAggregateTest {
+
+	@Test
+	void incrementalAggregate() {
+		TeamAggregate aggregate = new TeamAggregate(1L);
+		aggregate.add(10, 1);
+		aggregate.add(20, 1);
+		aggregate.add(40, 1);
+
+		TeamStats stats = aggregate.snapshot();
+		assertThat(stats.getCount()).isEqualTo(3);
+		assertThat(stats.getAgeSum()).isEqualTo(70);
+		assertThat(stats.getAgeMin()).isEqualTo(10);
+		assertThat(stats.getAgeMax()).isEqualTo(40);
+
+		// 최대 나이 회원이 빠지면 다음 나이가 최대
+		aggregate.add(40, -1);
+		stats = aggregate.snapshot();
+		assertThat(stats.getCount()).isEqualTo(2);
+		assertThat(stats.getAgeAvg()).isEqualTo(15);
+		assertThat(stats.getAgeMax()).isEqualTo(20);
+
+		aggregate.add(10, -1);
+		aggregate.add(20, -1);
+		assertThat(aggregate.isEmpty()).isTrue();
+		assertThat(aggregate.snapshot().getAgeMin()).isNull();
+	}
+}
@@ -0,0 +1,117 @@
+package study.querydsl.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import study.querydsl.dto.TeamStats;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+/**
+ * 팀 통계는 커밋 이후(post-commit 이벤트) 반영되므로 테스트 트랜잭션 없이 데이터를 커밋하고 끝나면 지움
+ */
+@SpringBootTest
+class TeamStatisticsServiceTest {
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	TeamStatisticsService teamStatisticsService;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	TransactionTemplate tx;
+	List<Team> teams;
+
+	@AfterEach
+	void cleanUp() {
+		if (teams == null) {
+			return;
+		}
+		tx.executeWithoutResult(status -> {
+			for (Team team : teams) {
+				em.createQuery("select m from Member m where m.team.id = :teamId", Member.class)
+					.setParameter("teamId", team.getId())
+					.getResultList()
+					.forEach(em::remove);
+				em.remove(em.find(Team.class, team.getId()));
+			}
+		});
+	}
+
+	@Test
+	void applyCommittedChanges() {
+		tx = new TransactionTemplate(transactionManager);
+		List<Member> members = tx.execute(status -> {
+			Team teamA = new Team("statsTeamA");
+			Team teamB = new Team("statsTeamB");
+			em.persist(teamA);
+			em.persist(teamB);
+			teams = Arrays.asList(teamA, teamB);
+			List<Member> saved = Arrays.asList(new Member("member1", 10, teamA), new Member("member2", 20, teamA),
+				new Member("member3", 30, teamB));
+			saved.forEach(em::persist);
+			return saved;
+		});
+		Long teamAId = teams.get(0).getId();
+		Long teamBId = teams.get(1).getId();
+		assertStats(teamAId, 2, 30, 10, 20);
+		assertStats(teamBId, 1, 30, 30, 30);
+
+		// 나이 변경
+		tx.executeWithoutResult(status -> em.find(Member.class, members.get(0).getId()).setAge(15));
+		assertStats(teamAId, 2, 35, 15, 20);
+
+		// 팀 변경은 이전 팀에서 빼고 새 팀에 더함
+		tx.executeWithoutResult(status ->
+			em.find(Member.class, members.get(1).getId()).changeTeam(em.find(Team.class, teamBId)));
+		assertStats(teamAId, 1, 15, 15, 15);
+		assertStats(teamBId, 2, 50, 20, 30);
+
+		// 삭제
+		tx.executeWithoutResult(status -> em.remove(em.find(Member.class, members.get(2).getId())));
+		assertStats(teamBId, 1, 20, 20, 20);
+
+		// 롤백된 변경은 반영하지 않음
+		tx.executeWithoutResult(status -> {
+			em.persist(new Member("member4", 40, em.find(Team.class, teamBId)));
+			status.setRollbackOnly();
+		});
+		assertStats(teamBId, 1, 20, 20, 20);
+
+		// 회원을 바꾼 트랜잭션은 커밋할 때까지 reconcile 을 막으므로 같은 트랜잭션 안에서는 실행할 수 없음
+		tx.executeWithoutResult(status -> {
+			em.persist(new Member("member5", 50, em.find(Team.class, teamBId)));
+			em.flush();
+			assertThatThrownBy(() -> teamStatisticsService.reconcile()).isInstanceOf(IllegalStateException.class);
+			status.setRollbackOnly();
+		});
+
+		// DB 와 다시 맞춰도 같은 값
+		teamStatisticsService.reconcile();
+		assertStats(teamAId, 1, 15, 15, 15);
+		assertStats(teamBId, 1, 20, 20, 20);
+	}
+
+	private void assertStats(Long teamId, long count, long ageSum, int ageMin, int ageMax) {
+		TeamStats stats = teamStatisticsService.get(teamId);
+		assertThat(stats).isNotNull();
+		assertThat(stats.getCount()).isEqualTo(count);
+		assertThat(stats.getAgeSum()).isEqualTo(ageSum);
+		assertThat(stats.getAgeMin()).isEqualTo(ageMin);
+		assertThat(stats.getAgeMax()).isEqualTo(ageMax);
+	}
+}